@@ -0,0 +1,69 @@
+package info.globalbus.oraclewrapper;
+
+import info.globalbus.oraclewrapper.model.Complex;
+import info.globalbus.oraclewrapper.model.ComplexList;
+import info.globalbus.oraclewrapper.model.Response;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Java to database conversion: InstantiatorWrapper.valueToDatabase followed by MappedSqlTypeValue.createTypeValue,
+ * as done by Spring on procedure execution.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class InputEncodeBenchmark {
+    @Param("10000")
+    int size;
+    private InstantiatorWrapper instantiatorWrapper;
+    private Complex complex;
+    private Response response;
+    private ComplexList complexList;
+
+    @Setup
+    public void setup() throws SQLException {
+        instantiatorWrapper = OracleFixtures.instantiatorWrapper();
+        register(Complex.class, OracleFixtures.COMPLEX);
+        register(Response.class, OracleFixtures.RESPONSE);
+        register(ComplexList.class, OracleFixtures.COMPLEX_LIST);
+        complex = OracleFixtures.complexObject(1);
+        response = OracleFixtures.responseObject();
+        complexList = OracleFixtures.complexListObject(size);
+    }
+
+    private <T> void register(Class<T> clazz, String typeName) throws SQLException {
+        ReflectionSqlTypeValue<T> reflectionSqlTypeValue = new ReflectionSqlTypeValue<>(clazz,
+            OracleFixtures.connection, typeName, instantiatorWrapper);
+        instantiatorWrapper.registerInputMapping(clazz, reflectionSqlTypeValue);
+    }
+
+    private Object encode(Object value, String typeName) throws SQLException {
+        MappedSqlTypeValue typeValue = (MappedSqlTypeValue) instantiatorWrapper.valueToDatabase(value);
+        return typeValue.createTypeValue(OracleFixtures.connection, Types.STRUCT, typeName);
+    }
+
+    @Benchmark
+    public Object flatStruct() throws SQLException {
+        return encode(complex, OracleFixtures.COMPLEX);
+    }
+
+    @Benchmark
+    public Object nestedStruct() throws SQLException {
+        return encode(response, OracleFixtures.RESPONSE);
+    }
+
+    @Benchmark
+    public Object largeCollection() throws SQLException {
+        return encode(complexList, OracleFixtures.COMPLEX_LIST);
+    }
+}
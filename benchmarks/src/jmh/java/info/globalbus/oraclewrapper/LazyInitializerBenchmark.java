@@ -0,0 +1,53 @@
+package info.globalbus.oraclewrapper;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+/**
+ * Contention on LazyInitializer.get(), which is on path of every DAO call. Throughput per thread should stay flat
+ * when number of threads grows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LazyInitializerBenchmark {
+    private ProcedureWrapperBuilder<Object>.LazyInitializer wrapper;
+
+    @Setup
+    public void setup() {
+        wrapper = new ProcedureWrapperBuilder<>()
+            .jdbcTemplate(new JdbcTemplate(new DriverManagerDataSource()))
+            .instantiatorWrapper(new InstantiatorWrapper())
+            .procedureName("benchmark")
+            .clazz(Object.class)
+            .eager()
+            .build();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public ProcedureCaller<Object> oneThread() {
+        return wrapper.get();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public ProcedureCaller<Object> fourThreads() {
+        return wrapper.get();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public ProcedureCaller<Object> sixteenThreads() {
+        return wrapper.get();
+    }
+}
@@ -0,0 +1,57 @@
+package info.globalbus.oraclewrapper;
+
+import info.globalbus.oraclewrapper.model.Complex;
+import info.globalbus.oraclewrapper.model.Response;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import oracle.sql.ARRAY;
+import oracle.sql.STRUCT;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Database to Java conversion: InstantiatorWrapper.getOutputObject and InstantiatorWrapper.getOutputList.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class OutputDecodeBenchmark {
+    @Param("10000")
+    int size;
+    private InstantiatorWrapper instantiatorWrapper;
+    private STRUCT complex;
+    private STRUCT response;
+    private ARRAY complexArray;
+
+    @Setup
+    public void setup() throws SQLException {
+        instantiatorWrapper = OracleFixtures.instantiatorWrapper();
+        instantiatorWrapper.registerReflectiveConversionOutput(Complex.class);
+        instantiatorWrapper.registerReflectiveConversionOutput(Response.class);
+        complex = OracleFixtures.complexStruct(1);
+        response = OracleFixtures.responseStruct();
+        complexArray = OracleFixtures.complexArray(size);
+    }
+
+    @Benchmark
+    public Complex flatObject() {
+        return instantiatorWrapper.getOutputObject(Complex.class, complex);
+    }
+
+    @Benchmark
+    public Response nestedObject() {
+        return instantiatorWrapper.getOutputObject(Response.class, response);
+    }
+
+    @Benchmark
+    public List<Complex> largeList() {
+        return instantiatorWrapper.getOutputList(Complex.class, complexArray);
+    }
+}
@@ -0,0 +1,47 @@
+package info.globalbus.oraclewrapper;
+
+import info.globalbus.oraclewrapper.model.Complex;
+import info.globalbus.oraclewrapper.model.ComplexList;
+import info.globalbus.oraclewrapper.model.Response;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * ReflectionSqlTypeValue construction, paid once per input type when a wrapper is initialized.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TypeRegistrationBenchmark {
+    private InstantiatorWrapper instantiatorWrapper;
+
+    @Setup
+    public void setup() {
+        instantiatorWrapper = OracleFixtures.instantiatorWrapper();
+    }
+
+    @Benchmark
+    public Object flatType() throws SQLException {
+        return new ReflectionSqlTypeValue<>(Complex.class, OracleFixtures.connection, OracleFixtures.COMPLEX,
+            instantiatorWrapper);
+    }
+
+    @Benchmark
+    public Object nestedType() throws SQLException {
+        return new ReflectionSqlTypeValue<>(Response.class, OracleFixtures.connection, OracleFixtures.RESPONSE,
+            instantiatorWrapper);
+    }
+
+    @Benchmark
+    public Object collectionType() throws SQLException {
+        return new ReflectionSqlTypeValue<>(ComplexList.class, OracleFixtures.connection,
+            OracleFixtures.COMPLEX_LIST, instantiatorWrapper);
+    }
+}
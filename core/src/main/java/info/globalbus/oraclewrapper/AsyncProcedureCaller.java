@@ -0,0 +1,10 @@
+package info.globalbus.oraclewrapper;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+public interface AsyncProcedureCaller<T> {
+    CompletableFuture<List<T>> mapListAsync(Object... input);
+
+    CompletableFuture<T> mapObjectAsync(Object... input);
+}
@@ -0,0 +1,37 @@
+package info.globalbus.oraclewrapper;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Asynchronous facade for ProcedureCaller. Calls are executed on ProcedureExecutor bound to procedure datasource,
+ * so waiting for database never blocks caller thread.
+ */
+@RequiredArgsConstructor
+class AsyncStoredProcedureCaller<T> implements AsyncProcedureCaller<T> {
+    private final Lazy<ProcedureCaller<T>> caller;
+    private final ProcedureExecutor executor;
+
+    @Override
+    public CompletableFuture<List<T>> mapListAsync(Object... input) {
+        return submit(() -> caller.get().mapList(input));
+    }
+
+    @Override
+    public CompletableFuture<T> mapObjectAsync(Object... input) {
+        return submit(() -> caller.get().mapObject(input));
+    }
+
+    private <R> CompletableFuture<R> submit(Supplier<R> call) {
+        try {
+            return CompletableFuture.supplyAsync(call, executor);
+        } catch (RejectedExecutionException ex) {
+            CompletableFuture<R> rejected = new CompletableFuture<>();
+            rejected.completeExceptionally(ex);
+            return rejected;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package info.globalbus.oraclewrapper;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Single object calls gathered into calls of batch procedure.
+ */
+public interface BatchingProcedureCaller<T> {
+    CompletableFuture<T> mapObjectAsync(Object input);
+
+    T mapObject(Object input);
+}
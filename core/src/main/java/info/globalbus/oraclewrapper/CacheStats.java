@@ -0,0 +1,28 @@
+package info.globalbus.oraclewrapper;
+
+import lombok.AccessLevel;
+import lombok.Value;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * Snapshot of counters of a single metadata cache.
+ */
+@Value
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class CacheStats {
+    int size;
+    long hitCount;
+    long missCount;
+    long loadCount;
+    long totalLoadNanos;
+    long evictionCount;
+
+    public double getHitRate() {
+        long requests = hitCount + missCount;
+        return requests == 0 ? 1.0 : (double) hitCount / requests;
+    }
+
+    public long getAverageLoadNanos() {
+        return loadCount == 0 ? 0 : totalLoadNanos / loadCount;
+    }
+}
@@ -0,0 +1,20 @@
+package info.globalbus.oraclewrapper;
+
+import lombok.AccessLevel;
+import lombok.Value;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * Identity of procedure call, by kind of mapping and input arguments. Arguments are compared with equals, arrays by
+ * content. Internal usage.
+ */
+@Value
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class CallKey {
+    boolean list;
+    Object[] input;
+
+    static CallKey of(boolean list, Object[] input) {
+        return new CallKey(list, input.clone());
+    }
+}
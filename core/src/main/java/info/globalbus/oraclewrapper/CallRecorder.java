@@ -0,0 +1,63 @@
+package info.globalbus.oraclewrapper;
+
+import info.globalbus.oraclewrapper.internal.util.AllocationCounter;
+import java.util.Collection;
+import java.util.stream.Stream;
+
+/**
+ * Measures phases of a single procedure call and reports them to ProcedureMetrics. Internal usage.
+ */
+class CallRecorder {
+    private final ProcedureMetrics metrics;
+    private final String procedureName;
+    private final long allocatedAtStart;
+    private ProcedureMetrics.Phase phase = ProcedureMetrics.Phase.ENCODE;
+    private long phaseStart;
+
+    CallRecorder(ProcedureMetrics metrics, String procedureName) {
+        this.metrics = metrics;
+        this.procedureName = procedureName;
+        this.allocatedAtStart = metrics.isAllocationTracked() ? AllocationCounter.currentThreadAllocatedBytes() : -1;
+        this.phaseStart = System.nanoTime();
+    }
+
+    /**
+     * Ends current phase and starts the next one.
+     */
+    void next(ProcedureMetrics.Phase next) {
+        long now = System.nanoTime();
+        metrics.recordPhase(procedureName, phase, now - phaseStart);
+        phase = next;
+        phaseStart = now;
+    }
+
+    /**
+     * Ends last phase, with decoded result.
+     */
+    <R> R success(R result) {
+        metrics.recordPhase(procedureName, phase, System.nanoTime() - phaseStart);
+        long allocated = allocatedAtStart < 0 ? -1 : AllocationCounter.currentThreadAllocatedBytes() - allocatedAtStart;
+        metrics.recordCall(procedureName, countElements(result), allocated);
+        return result;
+    }
+
+    /**
+     * Ends failed phase, its latency is recorded, so slow failing calls are part of phase percentiles.
+     */
+    <E extends Throwable> E failure(E ex) {
+        metrics.recordPhase(procedureName, phase, System.nanoTime() - phaseStart);
+        metrics.recordError(procedureName, phase, ex);
+        return ex;
+    }
+
+    private static int countElements(Object result) {
+        if (result == null) {
+            return 0;
+        } else if (result instanceof Collection) {
+            return ((Collection<?>) result).size();
+        } else if (result instanceof Stream) {
+            return -1;
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,158 @@
+package info.globalbus.oraclewrapper;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.dalesbred.internal.instantiation.NamedTypeList;
+
+import static info.globalbus.oraclewrapper.internal.util.ReflectionUtils.compileSetter;
+import static info.globalbus.oraclewrapper.internal.util.ReflectionUtils.findGetterOrSetter;
+
+/**
+ * Instantiator resolved once per Java class and Oracle type. Constructor, setters and conversions of every
+ * attribute are compiled ahead, so STRUCT is mapped directly from attributes array. Internal usage.
+ */
+@Slf4j
+class CompiledInstantiator<T> {
+    private final MethodHandle constructor;
+    private final int parameterCount;
+    private final BiConsumer<Object, Object>[] setters;
+    private final MethodHandle[] conversions;
+    private final ThreadLocal<Object[]> argumentBuffer;
+    private final boolean[] skipped;
+
+    private CompiledInstantiator(MethodHandle constructor, int parameterCount, BiConsumer<Object, Object>[] setters,
+        MethodHandle[] conversions, boolean[] skipped) {
+        this.constructor = constructor;
+        this.parameterCount = parameterCount;
+        this.setters = setters;
+        this.conversions = conversions;
+        this.skipped = skipped;
+        this.argumentBuffer = ThreadLocal.withInitial(() -> new Object[parameterCount]);
+    }
+
+    /**
+     * Compiles constructor chosen for given attribute types. First attributes are passed to constructor in order,
+     * remaining ones are bound by setters.
+     *
+     * @param ctor       constructor accepting first attributes
+     * @param types      attribute names and types
+     * @param conversion lookup for conversion from database type to property type
+     * @return compiled instantiator, empty when some attribute cannot be mapped without dalesbred
+     */
+    @SuppressWarnings("unchecked")
+    static <T> Optional<CompiledInstantiator<T>> compile(Constructor<?> ctor, NamedTypeList types,
+        BiFunction<Type, Type, Optional<MethodHandle>> conversion) {
+        int parameterCount = ctor.getParameterCount();
+        int attributeCount = types.size();
+        if (parameterCount > attributeCount) {
+            return Optional.empty();
+        }
+        Type[] parameterTypes = ctor.getGenericParameterTypes();
+        MethodHandle[] conversions = new MethodHandle[attributeCount];
+        BiConsumer<Object, Object>[] setters = new BiConsumer[attributeCount - parameterCount];
+        boolean[] skipped = new boolean[attributeCount];
+        boolean anySkipped = false;
+        try {
+            for (int i = 0; i < attributeCount; i++) {
+                Type target;
+                if (i < parameterCount) {
+                    target = parameterTypes[i];
+                } else {
+                    Optional<Method> setter = findGetterOrSetter(ctor.getDeclaringClass(), types.getName(i), false);
+                    if (!setter.isPresent()) {
+                        log.debug("No setter of {} for attribute {}", ctor.getDeclaringClass().getName(),
+                            types.getName(i));
+                        return Optional.empty();
+                    }
+                    target = setter.get().getGenericParameterTypes()[0];
+                    setters[i - parameterCount] = compileSetter(setter.get());
+                }
+                if (target == Void.class) {
+                    skipped[i] = true;
+                    anySkipped = true;
+                }
+                Type source = types.getType(i);
+                if (!isAssignable(source, target)) {
+                    Optional<MethodHandle> converter = conversion.apply(source, target);
+                    if (!converter.isPresent()) {
+                        log.debug("No conversion from {} to {} for attribute {} of {}", source, target,
+                            types.getName(i), ctor.getDeclaringClass().getName());
+                        return Optional.empty();
+                    }
+                    conversions[i] = converter.get();
+                }
+            }
+            ctor.setAccessible(true);
+            MethodHandle handle = MethodHandles.lookup().unreflectConstructor(ctor)
+                .asSpreader(Object[].class, parameterCount)
+                .asType(MethodType.methodType(Object.class, Object[].class));
+            return Optional.of(new CompiledInstantiator<>(handle, parameterCount, setters, conversions,
+                anySkipped ? skipped : null));
+        } catch (IllegalAccessException | RuntimeException ex) {
+            log.debug("Cannot compile {} for attributes {}", ctor, types, ex);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * @return attributes bound to Void properties, which need not be decoded, null when all attributes are used
+     */
+    boolean[] getSkipped() {
+        return skipped;
+    }
+
+    private static boolean isAssignable(Type source, Type target) {
+        if (!(source instanceof Class) || !(target instanceof Class)) {
+            return false;
+        }
+        Class<?> targetClass = MethodType.methodType((Class<?>) target).wrap().returnType();
+        return targetClass.isAssignableFrom((Class<?>) source);
+    }
+
+    /**
+     * Converts attributes in place, so attributes array must not be shared. When constructor takes all attributes,
+     * the array is passed to it directly, otherwise constructor arguments are copied to a per thread buffer.
+     */
+    @SuppressWarnings("unchecked")
+    @SneakyThrows
+    T instantiate(Object[] attributes) {
+        for (int i = 0; i < attributes.length; i++) {
+            attributes[i] = convert(i, attributes[i]);
+        }
+        T result;
+        if (parameterCount == attributes.length) {
+            result = (T) constructor.invokeExact(attributes);
+        } else {
+            Object[] arguments = argumentBuffer.get();
+            System.arraycopy(attributes, 0, arguments, 0, parameterCount);
+            try {
+                result = (T) constructor.invokeExact(arguments);
+            } finally {
+                Arrays.fill(arguments, null);
+            }
+        }
+        for (int i = parameterCount; i < attributes.length; i++) {
+            setters[i - parameterCount].accept(result, attributes[i]);
+        }
+        return result;
+    }
+
+    @SneakyThrows
+    private Object convert(int index, Object value) {
+        MethodHandle conversion = conversions[index];
+        if (value == null || conversion == null) {
+            return value;
+        }
+        return conversion.invokeExact(value);
+    }
+}
@@ -0,0 +1,67 @@
+package info.globalbus.oraclewrapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+
+/**
+ * Decodes rows of cursor on demand, rows are fetched from database in batches of result set fetch size. Every row is
+ * passed to the stream, also when it is decoded as null. Cursor and its resources are closed when last row is read,
+ * on error or when stream is closed.
+ */
+class CursorSpliterator<T> extends Spliterators.AbstractSpliterator<T> implements AutoCloseable {
+    private final ResultSet resultSet;
+    private final RowDecoder<T> decoder;
+    private final Runnable onClose;
+    private boolean closed;
+
+    CursorSpliterator(ResultSet resultSet, RowDecoder<T> decoder, Runnable onClose) {
+        super(Long.MAX_VALUE, Spliterator.ORDERED);
+        this.resultSet = resultSet;
+        this.decoder = decoder;
+        this.onClose = onClose;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+        if (closed) {
+            return false;
+        }
+        try {
+            if (resultSet.next()) {
+                action.accept(decoder.decode(resultSet));
+                return true;
+            }
+        } catch (SQLException ex) {
+            close();
+            throw new ProcedureWrapperException("Cannot read cursor", ex);
+        } catch (RuntimeException ex) {
+            close();
+            throw ex;
+        }
+        close();
+        return false;
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            resultSet.close();
+        } catch (SQLException ex) {
+            throw new ProcedureWrapperException("Cannot close cursor", ex);
+        } finally {
+            onClose.run();
+        }
+    }
+
+    @FunctionalInterface
+    interface RowDecoder<T> {
+        T decode(ResultSet resultSet) throws SQLException;
+    }
+}
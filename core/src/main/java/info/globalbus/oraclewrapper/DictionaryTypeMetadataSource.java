@@ -0,0 +1,47 @@
+package info.globalbus.oraclewrapper;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+/**
+ * Reads type definitions of current schema from ALL_TYPE_ATTRS and ALL_COLL_TYPES, with two queries for every
+ * 1000 types.
+ */
+@RequiredArgsConstructor
+public class DictionaryTypeMetadataSource implements TypeMetadataSource {
+    private static final int IN_LIST_LIMIT = 1000;
+    private static final String ATTRIBUTES_QUERY = "SELECT type_name, attr_name, attr_type_name, attr_type_owner "
+        + "FROM all_type_attrs WHERE owner = SYS_CONTEXT('USERENV', 'CURRENT_SCHEMA') AND type_name IN (%s) "
+        + "ORDER BY type_name, attr_no";
+    private static final String COLLECTIONS_QUERY = "SELECT type_name, elem_type_name, elem_type_owner "
+        + "FROM all_coll_types WHERE owner = SYS_CONTEXT('USERENV', 'CURRENT_SCHEMA') AND type_name IN (%s)";
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public Map<String, TypeMetadata> load(Collection<String> typeNames) {
+        Map<String, List<TypeMetadata.Attribute>> attributes = new LinkedHashMap<>();
+        Map<String, TypeMetadata> result = new HashMap<>();
+        List<String> names = new ArrayList<>(typeNames);
+        for (int i = 0; i < names.size(); i += IN_LIST_LIMIT) {
+            List<String> chunk = names.subList(i, Math.min(i + IN_LIST_LIMIT, names.size()));
+            String placeholders = String.join(", ", Collections.nCopies(chunk.size(), "?"));
+            jdbcTemplate.query(String.format(ATTRIBUTES_QUERY, placeholders), chunk.toArray(),
+                (RowCallbackHandler) rs -> attributes.computeIfAbsent(rs.getString(1), k -> new ArrayList<>())
+                    .add(new TypeMetadata.Attribute(rs.getString(2), rs.getString(3), rs.getString(4) != null)));
+            jdbcTemplate.query(String.format(COLLECTIONS_QUERY, placeholders), chunk.toArray(),
+                (RowCallbackHandler) rs -> result.put(rs.getString(1), TypeMetadata.collection(rs.getString(1),
+                    rs.getString(2), rs.getString(3) != null)));
+        }
+        attributes.forEach((typeName, typeAttributes) -> result.put(typeName,
+            TypeMetadata.object(typeName, typeAttributes)));
+        return result;
+    }
+}
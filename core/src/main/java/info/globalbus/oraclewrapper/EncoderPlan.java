@@ -0,0 +1,106 @@
+package info.globalbus.oraclewrapper;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.experimental.FieldDefaults;
+import oracle.sql.ARRAY;
+import oracle.sql.ArrayDescriptor;
+import oracle.sql.STRUCT;
+import oracle.sql.StructDescriptor;
+
+/**
+ * Immutable encoding plan of OracleStruct class. Plan holds resolved descriptor of type, compiled getters of its
+ * attributes and encoders of their values, with plans of nested structs and descriptors of nested collections, so
+ * object graph is converted to STRUCT without lookups. Internal usage.
+ */
+@RequiredArgsConstructor
+class EncoderPlan {
+    @Getter
+    private final String typeName;
+    private final StructDescriptor descriptor;
+    private final Connection dummyConnection;
+    private final FieldEncoder[] fields;
+
+    STRUCT encode(Connection con, Object source) throws SQLException {
+        return encode(con, source, descriptor);
+    }
+
+    /**
+     * Converts source object to STRUCT of given descriptor, for objects passed as parameter of other type name.
+     */
+    STRUCT encode(Connection con, Object source, StructDescriptor desc) throws SQLException {
+        Object[] values = new Object[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            values[i] = fields[i].encode(con, source);
+        }
+        return new STRUCT(desc, dummyConnection, values);
+    }
+
+    /**
+     * @return collection of structs of this plan
+     */
+    ARRAY encodeArray(Connection con, ArrayDescriptor desc, Collection<?> elements) throws SQLException {
+        Object[] structs = new Object[elements.size()];
+        int i = 0;
+        for (Object element : elements) {
+            structs[i++] = element == null ? null : encode(con, element);
+        }
+        return new ARRAY(desc, dummyConnection, structs);
+    }
+
+    /**
+     * @return encoder of nested struct
+     */
+    ValueEncoder asValueEncoder() {
+        return this::encode;
+    }
+
+    /**
+     * @return encoder of List, elements are converted with element encoder
+     */
+    static ValueEncoder array(ArrayDescriptor desc, Connection dummyConnection, ValueEncoder elementEncoder) {
+        return (con, value) -> {
+            List<?> list = (List<?>) value;
+            Object[] elements = new Object[list.size()];
+            int i = 0;
+            for (Object element : list) {
+                elements[i++] = element == null ? null : elementEncoder.encode(con, element);
+            }
+            return new ARRAY(desc, dummyConnection, elements);
+        };
+    }
+
+    /**
+     * Converts non null Java value to database value.
+     */
+    @FunctionalInterface
+    interface ValueEncoder {
+        Object encode(Connection con, Object value) throws SQLException;
+    }
+
+    @Value
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    static class FieldEncoder {
+        Function<Object, Object> getter;
+        ValueEncoder encoder;
+
+        Object encode(Connection con, Object source) {
+            Object value = getter.apply(source);
+            if (value == null) {
+                return null;
+            }
+            try {
+                return encoder.encode(con, value);
+            } catch (SQLException ex) {
+                throw new ProcedureWrapperException("Error on serialization to database", ex);
+            }
+        }
+    }
+}
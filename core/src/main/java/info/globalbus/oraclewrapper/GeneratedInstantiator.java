@@ -0,0 +1,66 @@
+package info.globalbus.oraclewrapper;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Instantiator backed by generated StructMapper. Attributes are matched to properties by name once, objects are
+ * created and filled without reflection. Attributes bound to Void property are skipped, when some attribute has no
+ * matching property the class is mapped by reflection, which reports it. Internal usage.
+ */
+class GeneratedInstantiator<T> {
+    private final StructMapper<T> mapper;
+    private final int[] properties;
+    private final StructMapper.Context context;
+    private final boolean[] skipped;
+
+    private GeneratedInstantiator(StructMapper<T> mapper, int[] properties, StructMapper.Context context) {
+        this.mapper = mapper;
+        this.properties = properties;
+        this.context = context;
+        this.skipped = skipped(mapper, properties);
+    }
+
+    /**
+     * @return instantiator, empty when mapper cannot decode or some attribute has no matching property
+     */
+    static <T> Optional<GeneratedInstantiator<T>> create(StructMapper<T> mapper, List<String> attributeNames,
+        StructMapper.Context context) {
+        if (context == null || !mapper.isDecodable()) {
+            return Optional.empty();
+        }
+        int[] properties = new int[attributeNames.size()];
+        for (int i = 0; i < properties.length; i++) {
+            properties[i] = StructMappers.indexOf(mapper, attributeNames.get(i));
+            if (properties[i] < 0) {
+                return Optional.empty();
+            }
+        }
+        return Optional.of(new GeneratedInstantiator<>(mapper, properties, context));
+    }
+
+    /**
+     * @return attributes bound to Void property, null when all attributes are used
+     */
+    boolean[] getSkipped() {
+        return skipped;
+    }
+
+    private static boolean[] skipped(StructMapper<?> mapper, int[] properties) {
+        boolean[] skipped = new boolean[properties.length];
+        boolean anySkipped = false;
+        for (int i = 0; i < properties.length; i++) {
+            skipped[i] = mapper.getProperties().get(properties[i]).getType() == Void.class;
+            anySkipped |= skipped[i];
+        }
+        return anySkipped ? skipped : null;
+    }
+
+    T instantiate(Object[] attributes) {
+        T result = mapper.newInstance();
+        for (int i = 0; i < attributes.length; i++) {
+            mapper.set(result, properties[i], attributes[i], context);
+        }
+        return result;
+    }
+}
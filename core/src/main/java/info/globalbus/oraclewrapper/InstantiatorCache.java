@@ -1,23 +1,36 @@
 package info.globalbus.oraclewrapper;
 
 import info.globalbus.oraclewrapper.internal.util.ReflectionUtils;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
+import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
+import java.lang.reflect.Type;
 import java.sql.Connection;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 import lombok.AccessLevel;
 import lombok.Getter;
+import lombok.SneakyThrows;
 import lombok.Value;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
@@ -26,6 +39,7 @@ import oracle.sql.ArrayDescriptor;
 import oracle.sql.SQLName;
 import oracle.sql.StructDescriptor;
 import oracle.sql.TypeDescriptor;
+import org.dalesbred.annotation.DalesbredInstantiator;
 import org.dalesbred.internal.instantiation.InstantiationFailureException;
 import org.dalesbred.internal.instantiation.Instantiator;
 import org.dalesbred.internal.instantiation.InstantiatorArguments;
@@ -40,23 +54,49 @@ import org.dalesbred.internal.jdbc.ResultSetUtils;
 @SuppressWarnings("deprecated")
 class InstantiatorCache {
     private final InstantiatorProvider instantiatorProvider;
-    private final Map<Class<?>, InstantiatorEntry> instatiatorCache = new ConcurrentHashMap<>();
-    private final Map<String, Class<?>> instatiatorNameCache = new ConcurrentHashMap<>();
-    private final Set<Class<?>> knownInputTypes = Collections.newSetFromMap(new ConcurrentHashMap<>());
-    private final Map<String, StructDescriptor> structDescriptorMap = new ConcurrentHashMap<>();
-    private final Map<String, ArrayDescriptor> arrayDescriptorMap = new ConcurrentHashMap<>();
+    private final ManagedCache<Class<?>, InstantiatorEntry> instatiatorCache;
+    private final ManagedCache<HolderKey, InstantiatorEntry> holderCache;
+    private final ManagedCache<String, Class<?>> instatiatorNameCache = new ManagedCache<>();
+    private final ManagedCache<Class<?>, Boolean> knownInputTypes = new ManagedCache<>();
+    private final Map<Class<?>, ReflectionSqlTypeValue<?>> inputMappings = new ConcurrentHashMap<>();
+    private final ManagedCache<String, StructDescriptor> structDescriptorMap;
+    private final ManagedCache<String, ArrayDescriptor> arrayDescriptorMap;
+    private final Map<String, TypeMetadata> typeMetadata = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> nestedTypes = new ConcurrentHashMap<>();
+    private final Map<ConversionKey, Optional<MethodHandle>> conversions = new ConcurrentHashMap<>();
+    private volatile StructMapper.Context mapperContext;
+    private final AtomicLong generation = new AtomicLong();
+    private final long timeToLiveNanos;
     private final ReflectionUtils.PrivateMethod<Stream<? extends Constructor<?>>> candidateConstructors;
     private final ReflectionUtils.PrivateMethod implicitInstantiator;
+    private final ReflectionUtils.PrivateMethod<Optional<Object>> conversionFromDb;
     private final Field typeDescriptorConnection;
     @Getter
     private final OracleConnection dummyConnection;
 
     InstantiatorCache(InstantiatorProvider instantiatorProvider) {
+        this(instantiatorProvider, ManagedCache.UNBOUNDED, ManagedCache.UNBOUNDED);
+    }
+
+    /**
+     * @param maximumSize     bound of each descriptor and instantiator cache, 0 for unbounded
+     * @param timeToLiveNanos time after which descriptors and instantiators are loaded again, 0 for never
+     */
+    InstantiatorCache(InstantiatorProvider instantiatorProvider, int maximumSize, long timeToLiveNanos) {
         this.instantiatorProvider = instantiatorProvider;
+        instatiatorCache = new ManagedCache<>(maximumSize, timeToLiveNanos);
+        holderCache = new ManagedCache<>(maximumSize, timeToLiveNanos);
+        //encoders keep descriptors, they are rebuilt when descriptor is evicted
+        structDescriptorMap = new ManagedCache<>(maximumSize, timeToLiveNanos, generation::incrementAndGet);
+        arrayDescriptorMap = new ManagedCache<>(maximumSize, timeToLiveNanos, generation::incrementAndGet);
+        this.timeToLiveNanos = timeToLiveNanos;
         candidateConstructors = ReflectionUtils.callPrivate(instantiatorProvider,
             "candidateConstructorsSortedByDescendingParameterCount", Class.class);
         implicitInstantiator = ReflectionUtils.callPrivate(instantiatorProvider,
             "implicitInstantiatorFrom", Constructor.class, NamedTypeList.class);
+        //private lookup covers registered, enum and array conversions, CompiledInstantiatorTest fails when it's gone
+        conversionFromDb = ReflectionUtils.callPrivate(instantiatorProvider,
+            "findConversionFromDbValue", Type.class, Type.class);
         typeDescriptorConnection = Arrays.stream(TypeDescriptor.class.getDeclaredFields()).filter(v ->
             "connection".equals(v.getName())).findFirst().orElseThrow(IllegalArgumentException::new);
         typeDescriptorConnection.setAccessible(true);
@@ -77,18 +117,47 @@ class InstantiatorCache {
         return instatiatorCache.get(clazz);
     }
 
+    @SuppressWarnings("unchecked")
     <T> InstantiatorEntry<T> add(Class<T> outputClass, StructDescriptor desc) throws SQLException {
+        return instatiatorCache.load(outputClass, v -> createEntry(outputClass, desc));
+    }
+
+    /**
+     * Instantiator of class holding all output parameters of a procedure or columns of cursor row, resolved from
+     * their names and types. Instantiators are cached by holder class together with names and types, so the same
+     * class can hold outputs of different calls.
+     */
+    @SuppressWarnings("unchecked")
+    <T> InstantiatorEntry<T> getHolder(Class<T> holderClass, NamedTypeList types) throws SQLException {
+        List<Type> typeList = IntStream.range(0, types.size()).mapToObj(types::getType).collect(Collectors.toList());
+        return holderCache.get(new HolderKey(holderClass, types.getNames(), typeList),
+            v -> createEntry(holderClass, types));
+    }
+
+    private <T> InstantiatorEntry<T> createEntry(Class<T> outputClass, StructDescriptor desc) throws SQLException {
         ResultSetMetaData meta = desc.getMetaData();
-        NamedTypeList types = ResultSetUtils.getTypes(meta);
+        return createEntry(outputClass, ResultSetUtils.getTypes(meta));
+    }
+
+    private <T> InstantiatorEntry<T> createEntry(Class<T> outputClass, NamedTypeList types) {
+        Optional<GeneratedInstantiator<T>> generated = StructMappers.find(outputClass)
+            .flatMap(v -> GeneratedInstantiator.create(v, types.getNames(), mapperContext));
+        if (generated.isPresent()) {
+            return new InstantiatorEntry<>(null, types, null, generated.get());
+        }
         Instantiator<T> ctor;
-        if (types.size() == 1 && types.getType(0).equals(oracle.jdbc.OracleStruct.class)) {
+        boolean single = types.size() == 1 && types.getType(0).equals(oracle.jdbc.OracleStruct.class);
+        if (single) {
             ctor = findSingleInstantiator(outputClass, types);
         } else {
             ctor = instantiatorProvider.findInstantiator(outputClass, types);
         }
-        InstantiatorEntry<T> entry = new InstantiatorEntry<>(ctor, types);
-        instatiatorCache.put(outputClass, entry);
-        return entry;
+        CompiledInstantiator<T> compiled = compile(outputClass, types, single).orElse(null);
+        if (compiled == null) {
+            log.debug("Cannot compile instantiator for {} with attributes {}, dalesbred instantiator is used",
+                outputClass, types);
+        }
+        return new InstantiatorEntry<>(ctor, types, compiled, null);
     }
 
     @SuppressWarnings("unchecked")
@@ -102,8 +171,73 @@ class InstantiatorCache {
                 + " parameters " + types));
     }
 
+    /**
+     * Resolves the same constructor as dalesbred, and compiles it together with setters and conversions. Classes
+     * with explicit dalesbred instantiators or single attribute conversions are left to dalesbred.
+     */
+    private <T> Optional<CompiledInstantiator<T>> compile(Class<T> cl, NamedTypeList types, boolean single) {
+        if (conversionFromDb == null || Arrays.stream(cl.getDeclaredConstructors())
+            .anyMatch(c -> c.isAnnotationPresent(DalesbredInstantiator.class))) {
+            return Optional.empty();
+        }
+        if (!single && types.size() == 1 && findConversion(types.getType(0), cl).isPresent()) {
+            return Optional.empty();
+        }
+        return candidateConstructors.call(cl).orElse(Stream.empty())
+            .filter(ctor -> ((Optional<?>) implicitInstantiator.call(ctor, types).orElse(Optional.empty()))
+                .isPresent())
+            .findFirst()
+            .flatMap(ctor -> CompiledInstantiator.<T>compile(ctor, types, this::findConversion));
+    }
+
+    /**
+     * Finds dalesbred conversion and binds it as a (Object)Object method handle, empty when there is no conversion or
+     * dalesbred lookup is not available.
+     */
+    private Optional<MethodHandle> findConversion(Type source, Type target) {
+        if (conversionFromDb == null) {
+            return Optional.empty();
+        }
+        Type boxedTarget = target instanceof Class ? MethodType.methodType((Class<?>) target).wrap().returnType()
+            : target;
+        return conversionFromDb.call(source, boxedTarget)
+            .flatMap(v -> v)
+            .map(conversion -> {
+                try {
+                    Method convert = conversion.getClass().getMethod("convert", Object.class);
+                    convert.setAccessible(true);
+                    return MethodHandles.lookup().unreflect(convert).bindTo(conversion)
+                        .asType(MethodType.methodType(Object.class, Object.class));
+                } catch (ReflectiveOperationException | RuntimeException ex) {
+                    log.debug("Cannot bind conversion from {} to {}", source, target, ex);
+                    return null;
+                }
+            });
+    }
+
+    /**
+     * Context used by generated mappers, set by InstantiatorWrapper.
+     */
+    void setMapperContext(StructMapper.Context mapperContext) {
+        this.mapperContext = mapperContext;
+    }
+
+    /**
+     * Converts database value with dalesbred conversion, resolved once per pair of classes.
+     */
+    @SneakyThrows
+    Object convert(Object value, Class<?> target) {
+        Optional<MethodHandle> conversion = conversions.computeIfAbsent(new ConversionKey(value.getClass(), target),
+            k -> findConversion(k.getSource(), k.getTarget()));
+        if (!conversion.isPresent()) {
+            throw new ProcedureWrapperException("No conversion from " + value.getClass().getName() + " to "
+                + target.getName());
+        }
+        return conversion.get().invokeExact(value);
+    }
+
     boolean isKnown(Class<?> type) {
-        return instatiatorNameCache.values().contains(type);
+        return instatiatorNameCache.containsValue(type);
     }
 
     void setKnown(Class<?> type) {
@@ -111,11 +245,23 @@ class InstantiatorCache {
     }
 
     boolean isKnownInput(Class<?> type) {
-        return knownInputTypes.contains(type);
+        return knownInputTypes.containsKey(type);
     }
 
     void setKnownInput(Class<?> type) {
-        knownInputTypes.add(type);
+        knownInputTypes.put(type, Boolean.TRUE);
+    }
+
+    ReflectionSqlTypeValue<?> getInputMapping(Class<?> type) {
+        return inputMappings.get(type);
+    }
+
+    void setInputMapping(Class<?> type, ReflectionSqlTypeValue<?> mapping) {
+        inputMappings.put(type, mapping);
+    }
+
+    void removeInputMapping(Class<?> type) {
+        inputMappings.remove(type);
     }
 
     Class<?> getClassByName(SQLName sqlName) throws SQLException {
@@ -123,38 +269,170 @@ class InstantiatorCache {
     }
 
     StructDescriptor getStructFromCache(String typeName, Connection connection) throws SQLException {
-        StructDescriptor structDescriptor = structDescriptorMap.get(typeName);
-        if (structDescriptor == null) {
-            structDescriptor = new StructDescriptor(typeName, connection);
+        return structDescriptorMap.get(typeName, v -> {
+            StructDescriptor structDescriptor = new StructDescriptor(v, connection);
             structDescriptor.isInstantiable();
             clearConnection(structDescriptor);
-            structDescriptorMap.put(typeName, structDescriptor);
-        }
-        return structDescriptor;
+            return structDescriptor;
+        });
     }
 
     ArrayDescriptor getArrayFromCache(String typeName, Connection connection) throws SQLException {
-        ArrayDescriptor arrayDescriptor = arrayDescriptorMap.get(typeName);
-        if (arrayDescriptor == null) {
-            arrayDescriptor = new ArrayDescriptor(typeName, connection);
+        return arrayDescriptorMap.get(typeName, v -> {
+            ArrayDescriptor arrayDescriptor = new ArrayDescriptor(v, connection);
             arrayDescriptor.getArrayType();
             clearConnection(arrayDescriptor);
-            arrayDescriptorMap.put(typeName, arrayDescriptor);
+            return arrayDescriptor;
+        });
+    }
+
+    void registerStructDescriptor(String typeName, StructDescriptor descriptor) {
+        clearConnection(descriptor);
+        structDescriptorMap.put(typeName, descriptor);
+    }
+
+    void registerArrayDescriptor(String typeName, ArrayDescriptor descriptor) {
+        clearConnection(descriptor);
+        arrayDescriptorMap.put(typeName, descriptor);
+    }
+
+    /**
+     * @return attribute names of preloaded object type, null when type was not preloaded
+     */
+    List<String> getAttributeNames(String typeName) {
+        TypeMetadata metadata = typeMetadata.get(typeName);
+        return metadata == null ? null : metadata.getAttributeNames();
+    }
+
+    void setTypeMetadata(TypeMetadata metadata) {
+        typeMetadata.put(metadata.getTypeName(), metadata);
+        metadata.getReferencedTypes().forEach(v -> addNestedType(metadata.getTypeName(), v));
+    }
+
+    /**
+     * Records that type is used by attribute or element of parent type, so both are invalidated together.
+     */
+    void addNestedType(String parent, String nested) {
+        nestedTypes.computeIfAbsent(parent, k -> ConcurrentHashMap.newKeySet()).add(nested);
+    }
+
+    /**
+     * @return definitions of all preloaded types
+     */
+    Map<String, TypeMetadata> getTypeMetadata() {
+        return Collections.unmodifiableMap(typeMetadata);
+    }
+
+    /**
+     * @return true if descriptor and attribute names of object type are cached, so no connection is needed
+     */
+    boolean isPreloaded(String typeName) {
+        return typeMetadata.containsKey(typeName) && structDescriptorMap.containsKey(typeName);
+    }
+
+    /**
+     * Incremented on every invalidation and descriptor eviction, mappings built for older generation are rebuilt on
+     * next use.
+     */
+    long getGeneration() {
+        return generation.get();
+    }
+
+    /**
+     * @param createdNanos System.nanoTime() of mapping creation
+     * @return whether mapping is older than time to live of cached descriptors
+     */
+    boolean isExpired(long createdNanos) {
+        return timeToLiveNanos != ManagedCache.UNBOUNDED && System.nanoTime() - createdNanos > timeToLiveNanos;
+    }
+
+    StructDescriptor getCachedStruct(String typeName) {
+        return structDescriptorMap.get(typeName);
+    }
+
+    ArrayDescriptor getCachedArray(String typeName) {
+        return arrayDescriptorMap.get(typeName);
+    }
+
+    /**
+     * Removes descriptor and definition of preloaded type, so it is loaded again on next use.
+     */
+    void removeType(String typeName) {
+        typeMetadata.remove(typeName);
+        structDescriptorMap.remove(typeName);
+        arrayDescriptorMap.remove(typeName);
+        Class<?> type = instatiatorNameCache.get(typeName);
+        if (type != null) {
+            instatiatorCache.remove(type);
         }
-        return arrayDescriptor;
     }
 
-    synchronized <T> T inConnection(TypeDescriptor descriptor, Connection connection, Callable<T> callee) throws
-        SQLException {
-        try {
-            descriptor.setConnection(connection);
-            return callee.call();
-        } catch (SQLException ex) {
-            throw ex;
-        } catch (Exception ex) {
-            throw new SQLException(ex);
-        } finally {
-            clearConnection(descriptor);
+    /**
+     * Invalidates type, all types using it and all types nested in it. Registered conversions are kept, their
+     * descriptors, instantiators and attribute mappings are loaded again on next use.
+     *
+     * @return names of invalidated types
+     */
+    Set<String> invalidate(String typeName) {
+        Set<String> affected = new LinkedHashSet<>();
+        collect(typeName, affected, this::getParentTypes);
+        affected.remove(typeName);
+        collect(typeName, affected, v -> nestedTypes.getOrDefault(v, Collections.emptySet()));
+        affected.forEach(this::removeType);
+        generation.incrementAndGet();
+        return affected;
+    }
+
+    /**
+     * Invalidates all types.
+     */
+    void invalidateAll() {
+        typeMetadata.clear();
+        structDescriptorMap.clear();
+        arrayDescriptorMap.clear();
+        instatiatorCache.clear();
+        holderCache.clear();
+        generation.incrementAndGet();
+    }
+
+    Map<String, CacheStats> getStats() {
+        Map<String, CacheStats> stats = new LinkedHashMap<>();
+        stats.put("instantiators", instatiatorCache.stats());
+        stats.put("holders", holderCache.stats());
+        stats.put("outputTypes", instatiatorNameCache.stats());
+        stats.put("inputTypes", knownInputTypes.stats());
+        stats.put("structDescriptors", structDescriptorMap.stats());
+        stats.put("arrayDescriptors", arrayDescriptorMap.stats());
+        return stats;
+    }
+
+    private Set<String> getParentTypes(String typeName) {
+        return nestedTypes.entrySet().stream().filter(v -> v.getValue().contains(typeName)).map(Map.Entry::getKey)
+            .collect(Collectors.toSet());
+    }
+
+    private static void collect(String typeName, Set<String> result, Function<String, Set<String>> next) {
+        if (result.add(typeName)) {
+            next.apply(typeName).forEach(v -> collect(v, result, next));
+        }
+    }
+
+    /**
+     * Binds connection to descriptor for the time of callee. Lock is taken on descriptor only, so work on unrelated
+     * types runs in parallel.
+     */
+    <T> T inConnection(TypeDescriptor descriptor, Connection connection, Callable<T> callee) throws SQLException {
+        synchronized (descriptor) {
+            try {
+                descriptor.setConnection(connection);
+                return callee.call();
+            } catch (SQLException ex) {
+                throw ex;
+            } catch (Exception ex) {
+                throw new SQLException(ex);
+            } finally {
+                clearConnection(descriptor);
+            }
         }
     }
 
@@ -171,10 +449,42 @@ class InstantiatorCache {
     static class InstantiatorEntry<T> {
         final Instantiator<T> ctor;
         final NamedTypeList types;
+        final CompiledInstantiator<T> compiled;
+        final GeneratedInstantiator<T> generated;
 
         T instantiate(Object[] arguments) {
+            if (generated != null) {
+                return generated.instantiate(arguments);
+            } else if (compiled != null) {
+                return compiled.instantiate(arguments);
+            }
             InstantiatorArguments instantiatorArguments = new InstantiatorArguments(types, arguments);
             return ctor.instantiate(instantiatorArguments);
         }
+
+        /**
+         * @return attributes not used by instantiator, null when all are used or instantiator is not known
+         */
+        boolean[] getSkipped() {
+            if (generated != null) {
+                return generated.getSkipped();
+            }
+            return compiled == null ? null : compiled.getSkipped();
+        }
+    }
+
+    @Value
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    private static class ConversionKey {
+        Class<?> source;
+        Class<?> target;
+    }
+
+    @Value
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    private static class HolderKey {
+        Class<?> holderClass;
+        List<String> names;
+        List<Type> types;
     }
 }
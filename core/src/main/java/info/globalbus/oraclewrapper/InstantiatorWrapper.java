@@ -1,24 +1,64 @@
 package info.globalbus.oraclewrapper;
 
+import java.io.IOException;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
 import java.lang.reflect.ParameterizedType;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import lombok.Getter;
+import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 import oracle.jdbc.OracleArray;
+import oracle.jdbc.OracleConnection;
 import oracle.jdbc.OracleStruct;
+import oracle.sql.ARRAY;
+import oracle.sql.ArrayDescriptor;
+import oracle.sql.CHAR;
+import oracle.sql.DATE;
+import oracle.sql.Datum;
+import oracle.sql.NUMBER;
+import oracle.sql.RAW;
 import oracle.sql.STRUCT;
+import oracle.sql.StructDescriptor;
+import oracle.sql.TIMESTAMP;
 import org.dalesbred.conversion.TypeConversionRegistry;
 import org.dalesbred.dialect.OracleDialect;
 import org.dalesbred.internal.instantiation.InstantiatorProvider;
+import org.dalesbred.internal.instantiation.NamedTypeList;
+import org.dalesbred.internal.jdbc.ResultSetUtils;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.SqlParameter;
 
 /**
  * Instantiator wrapper for handling database to Java conversions. Designed to be used as single instance,
@@ -26,34 +66,123 @@ import org.dalesbred.internal.instantiation.InstantiatorProvider;
  */
 @Slf4j
 public class InstantiatorWrapper {
+    private static final int MIN_DECODE_SLICE = 256;
+    /**
+     * Types passed to Oracle driver as they are, without conversion.
+     */
+    private static final List<Class<?>> DATABASE_TYPES = Arrays.asList(String.class, BigDecimal.class, Integer.class,
+        Long.class, Short.class, Byte.class, Double.class, Float.class, Timestamp.class, java.sql.Date.class,
+        java.sql.Time.class, byte[].class, Clob.class, Blob.class, STRUCT.class, ARRAY.class);
+    private final Set<Class<?>> databaseTypes = ConcurrentHashMap.newKeySet();
+    private final Map<Class<?>, Function<Object, ?>> conversionsToDatabase = new ConcurrentHashMap<>();
     @Getter
     private final InstantiatorProvider instantiatorProvider;
     @Getter
     private final InstantiatorCache instantiatorCache;
+    @Getter
+    private volatile int parallelThreshold;
+    @Getter
+    private volatile ForkJoinPool decodePool = ForkJoinPool.commonPool();
+    @Getter
+    private volatile boolean projectedDecode;
+    @Getter
+    private volatile boolean lazyCollections;
 
     public InstantiatorWrapper() {
+        this(0, null);
+    }
+
+    /**
+     * @param maximumSize bound of each descriptor and instantiator cache, least recently used entries are evicted.
+     *                    0 for unbounded
+     * @param timeToLive  time after which descriptors and instantiators are read from database again, null for never
+     */
+    public InstantiatorWrapper(int maximumSize, Duration timeToLive) {
+        if (maximumSize < 0) {
+            throw new IllegalArgumentException("maximumSize cannot be negative");
+        }
         instantiatorProvider = new InstantiatorProvider(new OracleDialect());
-        instantiatorCache = new InstantiatorCache(instantiatorProvider);
+        instantiatorCache = new InstantiatorCache(instantiatorProvider, maximumSize,
+            timeToLive == null ? 0 : timeToLive.toNanos());
+        instantiatorCache.setMapperContext(new MapperContext());
+        databaseTypes.addAll(DATABASE_TYPES);
         TypeConversionRegistry typeConversionRegistry = instantiatorProvider.getTypeConversionRegistry();
-        typeConversionRegistry.registerConversionFromDatabase(OracleArray.class, List.class, this::getOutputList);
+        typeConversionRegistry.registerConversionFromDatabase(OracleArray.class, List.class, this::getNestedList);
         typeConversionRegistry.registerConversionFromDatabase(OracleStruct.class, Void.class, v -> null);
+        addConversionToDatabase(double[].class, v -> new PrimitiveArrayValue(instantiatorCache, v));
+        addConversionToDatabase(long[].class, v -> new PrimitiveArrayValue(instantiatorCache, v));
+        addConversionToDatabase(int[].class, v -> new PrimitiveArrayValue(instantiatorCache, v));
     }
 
-    //register custom conversions
+    /**
+     * Registers custom conversion. Conversions of types passed to driver without conversion (String, numbers, dates)
+     * must be registered with this method, before wrappers using them are created.
+     */
     public <S> void registerConversionToDatabase(Class<S> source, Function<S, ?> conversion) {
-        instantiatorProvider.getTypeConversionRegistry().registerConversionToDatabase(source, conversion);
+        addConversionToDatabase(source, conversion);
+        databaseTypes.remove(source);
         instantiatorCache.setKnownInput(source);
+        instantiatorCache.removeInputMapping(source);
+    }
+
+    /**
+     * Registers reflective conversion of OracleStruct class, its encoding plan is used directly by plans of classes
+     * nesting it.
+     */
+    <S> void registerInputMapping(Class<S> source, ReflectionSqlTypeValue<S> mapping) {
+        registerConversionToDatabase(source, mapping::getSqlTypeValue);
+        instantiatorCache.setInputMapping(source, mapping);
+    }
+
+    /**
+     * Enables parallel decoding of collections with at least threshold elements. Attributes are read by the driver
+     * on calling thread, then elements are converted and instantiated on given pool, order of results is preserved.
+     * Elements with nested objects, collections or LOBs are decoded on calling thread.
+     *
+     * @param threshold minimal number of elements decoded in parallel, 0 to disable
+     * @param pool      pool used for decoding
+     */
+    public void setParallelDecode(int threshold, ForkJoinPool pool) {
+        if (threshold < 0) {
+            throw new IllegalArgumentException("threshold cannot be negative");
+        }
+        this.decodePool = Objects.requireNonNull(pool, "pool cannot be null");
+        this.parallelThreshold = threshold;
+    }
+
+    /**
+     * Enables projected decoding of structs. Only attributes used by Java class are converted, attributes without
+     * property and attributes bound to Void are skipped. Nested collections can be decoded lazily, on first access
+     * of the list. Decoding errors are then thrown on first access instead of in the call. Lazy list keeps the
+     * driver's array, which reads elements through the connection of the call. Outside of transaction that connection
+     * is already back in the pool, so lazy lists should be accessed within the transaction of the call. Lazy lists
+     * are mutable, as eagerly decoded ones.
+     *
+     * @param projected       true to skip attributes not used by Java class
+     * @param lazyCollections true to decode nested collections on first access
+     */
+    public void setProjectedDecode(boolean projected, boolean lazyCollections) {
+        this.projectedDecode = projected;
+        this.lazyCollections = lazyCollections;
     }
 
     public <T> List<T> getOutputList(Class<T> outputClass, Object output) {
+        return getOutputList(outputClass, output, parallelThreshold, decodePool);
+    }
+
+    /**
+     * Decodes collection, in parallel on given pool when it has at least threshold elements.
+     *
+     * @param outputClass class of elements
+     * @param output      OracleArray of STRUCTs
+     * @param threshold   minimal number of elements decoded in parallel, 0 to decode on calling thread
+     * @param pool        pool used for decoding
+     * @return List of elements, in order of collection
+     */
+    public <T> List<T> getOutputList(Class<T> outputClass, Object output, int threshold, ForkJoinPool pool) {
         try {
             if (output instanceof OracleArray) {
-                List<Object> structs = Stream.of((Object[]) ((OracleArray) output).getArray())
-                    .filter(Objects::nonNull).collect(Collectors.toList());
-                if (structs.isEmpty()) {
-                    return Collections.emptyList();
-                }
-                return readArray(outputClass, structs);
+                return readArray(outputClass, (Object[]) ((OracleArray) output).getArray(), threshold, pool);
             } else {
                 throw new ProcedureWrapperException("Passed object is not a OracleArray");
             }
@@ -62,40 +191,290 @@ public class InstantiatorWrapper {
         }
     }
 
+    /**
+     * Lazily decoded view of OracleArray. Array is read in slices of chunkSize elements, so memory is bounded by
+     * chunk size instead of collection size.
+     *
+     * @param outputClass class of elements
+     * @param output      OracleArray of STRUCTs
+     * @param chunkSize   number of elements materialized at once
+     * @return sequential, ordered stream of elements
+     */
+    public <T> Stream<T> getOutputStream(Class<T> outputClass, Object output, int chunkSize) {
+        if (output == null) {
+            return Stream.empty();
+        } else if (!(output instanceof OracleArray)) {
+            throw new ProcedureWrapperException("Passed object is not a OracleArray");
+        }
+        try {
+            return StreamSupport.stream(new OracleArraySpliterator<>((OracleArray) output, chunkSize,
+                v -> getOutputObject(outputClass, v)), false);
+        } catch (SQLException ex) {
+            throw new ProcedureWrapperException("Cannot read OracleArray", ex);
+        }
+    }
+
+    /**
+     * Lazily decoded rows of cursor. Rows are fetched in batches of result set fetch size, so memory is bounded by
+     * fetch size instead of number of rows. Single STRUCT column is decoded as rowClass, row with null struct is
+     * passed as null. Otherwise columns are matched by name to constructor parameters or properties of rowClass.
+     *
+     * @param rowClass  class of rows
+     * @param resultSet opened cursor
+     * @param onClose   called after cursor is closed, when stream is exhausted or closed
+     * @return sequential, ordered stream of rows, should be closed by caller
+     */
+    public <T> Stream<T> getCursorStream(Class<T> rowClass, ResultSet resultSet, Runnable onClose)
+        throws SQLException {
+        CursorSpliterator<T> spliterator = new CursorSpliterator<>(resultSet, rowDecoder(rowClass, resultSet),
+            onClose);
+        return StreamSupport.stream(spliterator, false).onClose(spliterator::close);
+    }
+
+    private <T> CursorSpliterator.RowDecoder<T> rowDecoder(Class<T> rowClass, ResultSet resultSet)
+        throws SQLException {
+        NamedTypeList types = ResultSetUtils.getTypes(resultSet.getMetaData());
+        int columns = types.size();
+        if (columns == 1 && OracleStruct.class.equals(types.getType(0))) {
+            return rs -> getOutputObject(rowClass, rs.getObject(1));
+        }
+        InstantiatorCache.InstantiatorEntry<T> entry = instantiatorCache.getHolder(rowClass, types);
+        return rs -> {
+            Object[] values = new Object[columns];
+            for (int i = 0; i < columns; i++) {
+                values[i] = rs.getObject(i + 1);
+            }
+            return entry.instantiate(values);
+        };
+    }
+
+    private List<?> getNestedList(Object output) {
+        return lazyCollections ? new LazyDecodedList<>(() -> getOutputList(output)) : getOutputList(output);
+    }
+
     @SuppressWarnings("unchecked")
     @SneakyThrows
     private <T> List<T> getOutputList(Object output) {
         if (output instanceof OracleArray) {
-            List<Object> structs = Stream.of((Object[]) ((OracleArray) output).getArray())
-                .filter(Objects::nonNull).collect(Collectors.toList());
-            if (structs.isEmpty()) {
+            Object[] structs = (Object[]) ((OracleArray) output).getArray();
+            STRUCT first = firstStruct(structs);
+            if (first == null) {
                 return Collections.emptyList();
             }
-            Class<T> type = (Class<T>) instantiatorCache.getClassByName(((STRUCT) structs.get(0)).getDescriptor()
-                .getSQLName());
-            return getOutputList(type, output);
+            Class<T> type = (Class<T>) instantiatorCache.getClassByName(first.getDescriptor().getSQLName());
+            return readArray(type, structs, parallelThreshold, decodePool);
         } else {
             throw new ProcedureWrapperException("Passed object is not a OracleArray");
         }
     }
 
-    private <T> List<T> readArray(Class<T> outputClass, List<Object> structs) throws SQLException {
-        List<T> ret = new ArrayList<>();
+    /**
+     * Decodes array elements into presized list, null elements are skipped. Apart from the driver's attribute
+     * arrays, only result objects are allocated per element.
+     */
+    private <T> List<T> readArray(Class<T> outputClass, Object[] structs, int threshold, ForkJoinPool pool)
+        throws SQLException {
+        STRUCT first = firstStruct(structs);
+        if (first == null) {
+            return Collections.emptyList();
+        }
         InstantiatorCache.InstantiatorEntry<T> entry = instantiatorCache.get(outputClass);
         if (entry == null) {
-            entry = instantiatorCache.add(outputClass, ((STRUCT) structs.get(0)).getDescriptor());
+            entry = instantiatorCache.add(outputClass, first.getDescriptor());
+        }
+        boolean projected = projectedDecode;
+        if (threshold > 0 && structs.length >= threshold) {
+            return readArrayParallel(entry, structs, pool, projected);
         }
+        List<T> ret = new ArrayList<>(structs.length);
         for (Object obj : structs) {
-            Object[] attr = ((STRUCT) obj).getAttributes(Collections.emptyMap());
-            T javaObject = entry.instantiate(attr);
-            if (javaObject != null) {
-                ret.add(javaObject);
+            if (obj != null) {
+                T javaObject = entry.instantiate(readAttributes(entry, (STRUCT) obj, projected));
+                if (javaObject != null) {
+                    ret.add(javaObject);
+                }
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * Driver reads attributes under lock of the connection, so they are read on calling thread, before fork.
+     * Elements with attributes bound to connection are decoded there as well, workers only convert detached datums
+     * and instantiate objects. Every worker writes to its own slice of decoded array, nulls are removed after join.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> List<T> readArrayParallel(InstantiatorCache.InstantiatorEntry<T> entry, Object[] structs,
+        ForkJoinPool pool, boolean projected) throws SQLException {
+        boolean[] skipped = projected ? entry.getSkipped() : null;
+        Datum[][] datums = new Datum[structs.length][];
+        Object[] decoded = new Object[structs.length];
+        for (int i = 0; i < structs.length; i++) {
+            if (structs[i] != null) {
+                Datum[] attributes = ((STRUCT) structs[i]).getOracleAttributes();
+                if (isDetached(attributes, skipped)) {
+                    datums[i] = attributes;
+                } else {
+                    decoded[i] = entry.instantiate(toJdbc(attributes, skipped));
+                }
+            }
+        }
+        int sliceSize = Math.max(MIN_DECODE_SLICE, structs.length / (pool.getParallelism() * 4));
+        pool.invoke(new DecodeTask<>(entry, datums, skipped, decoded, 0, structs.length, sliceSize));
+        List<T> ret = new ArrayList<>(structs.length);
+        for (Object obj : decoded) {
+            if (obj != null) {
+                ret.add((T) obj);
             }
         }
         return ret;
     }
 
+    @RequiredArgsConstructor
+    private static class DecodeTask<T> extends RecursiveAction {
+        private final InstantiatorCache.InstantiatorEntry<T> entry;
+        private final Datum[][] datums;
+        private final boolean[] skipped;
+        private final Object[] decoded;
+        private final int from;
+        private final int to;
+        private final int sliceSize;
+
+        @Override
+        protected void compute() {
+            if (to - from <= sliceSize) {
+                decodeSlice();
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new DecodeTask<>(entry, datums, skipped, decoded, from, middle, sliceSize),
+                new DecodeTask<>(entry, datums, skipped, decoded, middle, to, sliceSize));
+        }
+
+        private void decodeSlice() {
+            try {
+                for (int i = from; i < to; i++) {
+                    if (datums[i] != null) {
+                        decoded[i] = entry.instantiate(toJdbc(datums[i], skipped));
+                    }
+                }
+            } catch (SQLException ex) {
+                throw new ProcedureWrapperException("Cannot read OracleStruct", ex);
+            }
+        }
+    }
+
+    /**
+     * Reads attributes of struct. In projected mode attributes skipped by instantiator are left null, without
+     * conversion of their datums.
+     */
+    private static Object[] readAttributes(InstantiatorCache.InstantiatorEntry<?> entry, STRUCT struct,
+        boolean projected) throws SQLException {
+        boolean[] skipped = projected ? entry.getSkipped() : null;
+        if (skipped == null) {
+            return struct.getAttributes(Collections.emptyMap());
+        }
+        return toJdbc(struct.getOracleAttributes(), skipped);
+    }
+
+    /**
+     * @param skipped attributes left null, null to convert all attributes
+     */
+    private static Object[] toJdbc(Datum[] datums, boolean[] skipped) throws SQLException {
+        Object[] attributes = new Object[datums.length];
+        for (int i = 0; i < datums.length; i++) {
+            Datum datum = datums[i];
+            if (datum != null && !isSkipped(skipped, i)) {
+                attributes[i] = datum instanceof STRUCT ? ((STRUCT) datum).toJdbc(Collections.emptyMap())
+                    : datum.toJdbc();
+            }
+        }
+        return attributes;
+    }
+
+    /**
+     * @return true when all used attributes are converted without connection
+     */
+    private static boolean isDetached(Datum[] datums, boolean[] skipped) {
+        for (int i = 0; i < datums.length; i++) {
+            Datum datum = datums[i];
+            if (datum != null && !isSkipped(skipped, i) && !(datum instanceof NUMBER || datum instanceof CHAR
+                || datum instanceof DATE || datum instanceof TIMESTAMP || datum instanceof RAW)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isSkipped(boolean[] skipped, int index) {
+        return skipped != null && index < skipped.length && skipped[index];
+    }
+
+    private static STRUCT firstStruct(Object[] structs) {
+        for (Object obj : structs) {
+            if (obj != null) {
+                return (STRUCT) obj;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Reads numeric collection directly into primitive array, without boxing of elements.
+     *
+     * @param output OracleArray of numbers
+     * @return array of elements, null for null collection
+     */
+    public double[] getDoubleArray(Object output) {
+        return readNumbers(output, OracleArray::getDoubleArray);
+    }
+
+    /**
+     * Reads numeric collection directly into primitive array, without boxing of elements.
+     *
+     * @param output OracleArray of numbers
+     * @return array of elements, null for null collection
+     */
+    public long[] getLongArray(Object output) {
+        return readNumbers(output, OracleArray::getLongArray);
+    }
+
+    /**
+     * Reads numeric collection directly into primitive array, without boxing of elements.
+     *
+     * @param output OracleArray of numbers
+     * @return array of elements, null for null collection
+     */
+    public int[] getIntArray(Object output) {
+        return readNumbers(output, OracleArray::getIntArray);
+    }
+
+    private <R> R readNumbers(Object output, NumberArrayReader<R> reader) {
+        if (output == null) {
+            return null;
+        } else if (!(output instanceof OracleArray)) {
+            throw new ProcedureWrapperException("Passed object is not a OracleArray");
+        }
+        try {
+            return reader.read((OracleArray) output);
+        } catch (SQLException ex) {
+            throw new ProcedureWrapperException("Cannot read OracleArray", ex);
+        }
+    }
+
+    @FunctionalInterface
+    private interface NumberArrayReader<R> {
+        R read(OracleArray array) throws SQLException;
+    }
+
     public <T> T getOutputObject(Class<T> outputClass, Object output) {
+        if (outputClass == double[].class) {
+            return outputClass.cast(getDoubleArray(output));
+        } else if (outputClass == long[].class) {
+            return outputClass.cast(getLongArray(output));
+        } else if (outputClass == int[].class) {
+            return outputClass.cast(getIntArray(output));
+        }
         try {
             if (output instanceof OracleStruct) {
                 STRUCT struct = (STRUCT) output;
@@ -103,7 +482,7 @@ public class InstantiatorWrapper {
                 if (entry == null) {
                     entry = instantiatorCache.add(outputClass, struct.getDescriptor());
                 }
-                Object[] attr = struct.getAttributes(Collections.emptyMap());
+                Object[] attr = readAttributes(entry, struct, projectedDecode);
                 T javaObject = entry.instantiate(attr);
                 if (javaObject != null) {
                     return javaObject;
@@ -119,7 +498,78 @@ public class InstantiatorWrapper {
         return null;
     }
 
+    /**
+     * Maps all output parameters of a call into holder class. Parameters are matched by name to constructor
+     * parameters or properties of holder, structs and arrays are decoded with registered conversions.
+     *
+     * @param holderClass class of result holder
+     * @param outputs     output parameters, in order of declaration
+     * @param results     values of output parameters, by name
+     * @return holder with decoded outputs
+     */
+    public <T> T getOutputHolder(Class<T> holderClass, List<? extends SqlParameter> outputs,
+        Map<String, Object> results) {
+        try {
+            NamedTypeList.Builder types = NamedTypeList.builder(outputs.size());
+            outputs.forEach(v -> types.add(v.getName(), getOutputType(v.getSqlType())));
+            InstantiatorCache.InstantiatorEntry<T> entry = instantiatorCache.getHolder(holderClass, types.build());
+            Object[] values = new Object[outputs.size()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = results.get(outputs.get(i).getName());
+            }
+            return entry.instantiate(values);
+        } catch (Exception ex) {
+            throw new ProcedureWrapperException("Cannot map outputs to " + holderClass.getName(), ex);
+        }
+    }
+
+    /**
+     * Class of value returned by Oracle driver for output parameter of given SQL type.
+     */
+    private static Class<?> getOutputType(int sqlType) {
+        switch (sqlType) {
+            case Types.STRUCT:
+                return OracleStruct.class;
+            case Types.ARRAY:
+                return OracleArray.class;
+            case Types.NUMERIC:
+            case Types.DECIMAL:
+            case Types.INTEGER:
+            case Types.BIGINT:
+            case Types.SMALLINT:
+            case Types.TINYINT:
+                return BigDecimal.class;
+            case Types.CHAR:
+            case Types.VARCHAR:
+            case Types.NCHAR:
+            case Types.NVARCHAR:
+            case Types.LONGVARCHAR:
+                return String.class;
+            case Types.DATE:
+            case Types.TIMESTAMP:
+                return Timestamp.class;
+            case Types.CLOB:
+                return Clob.class;
+            case Types.BLOB:
+                return Blob.class;
+            default:
+                return Object.class;
+        }
+    }
+
     private <T> void cacheInnerClasses(Class<T> outputClass) throws SQLException {
+        Optional<StructMapper<T>> mapper = StructMappers.find(outputClass);
+        if (mapper.isPresent()) {
+            for (StructProperty property : mapper.get().getProperties()) {
+                if (isUnknown(property.getType())) {
+                    registerReflectiveConversionOutput(property.getType());
+                }
+                if (property.getElementType() != null && isUnknown(property.getElementType())) {
+                    registerReflectiveConversionOutput(property.getElementType());
+                }
+            }
+            return;
+        }
         Field[] fields = outputClass.getDeclaredFields();
         final Class<? super T> superclass = outputClass.getSuperclass();
         if (superclass != Object.class) {
@@ -145,6 +595,17 @@ public class InstantiatorWrapper {
                && !instantiatorCache.isKnown(type);
     }
 
+    /**
+     * Registers conversions of cursor rows. Row class can be Oracle struct or plain class with struct properties.
+     */
+    <T> void registerCursorOutput(Class<T> rowClass) throws SQLException {
+        if (rowClass.getAnnotation(info.globalbus.oraclewrapper.OracleStruct.class) != null) {
+            registerReflectiveConversionOutput(rowClass);
+        } else {
+            cacheInnerClasses(rowClass);
+        }
+    }
+
     public <T> void registerReflectiveConversionOutput(Class<T> clazz) throws SQLException {
         instantiatorProvider.getTypeConversionRegistry().registerConversionFromDatabase(OracleStruct.class, clazz, v
             -> getOutputObject(clazz, v));
@@ -152,8 +613,242 @@ public class InstantiatorWrapper {
         cacheInnerClasses(clazz);
     }
 
+    /**
+     * Preloads given types and all types nested in them, with bulk queries to ALL_TYPE_ATTRS and ALL_COLL_TYPES.
+     *
+     * @param jdbcTemplate template used for dictionary queries and descriptors
+     * @param typeNames    names of object and collection types
+     */
+    public void preload(JdbcTemplate jdbcTemplate, Collection<String> typeNames) {
+        preload(jdbcTemplate, new DictionaryTypeMetadataSource(jdbcTemplate), typeNames);
+    }
+
+    /**
+     * Preloads given types and all types nested in them. Definitions are read from source, one bulk call per
+     * nesting level, then descriptors are created on a single connection. Wrappers built on preloaded types don't
+     * borrow connections to read type metadata.
+     *
+     * @param jdbcTemplate template used for descriptors
+     * @param source       source of type definitions
+     * @param typeNames    names of object and collection types
+     */
+    public void preload(JdbcTemplate jdbcTemplate, TypeMetadataSource source, Collection<String> typeNames) {
+        Map<String, TypeMetadata> types = new LinkedHashMap<>();
+        Set<String> pending = new LinkedHashSet<>(typeNames);
+        while (!pending.isEmpty()) {
+            Map<String, TypeMetadata> loaded = source.load(pending);
+            pending.stream().filter(v -> !loaded.containsKey(v))
+                .forEach(v -> log.warn("Type {} not found in type metadata", v));
+            types.putAll(loaded);
+            pending = loaded.values().stream().flatMap(v -> v.getReferencedTypes().stream())
+                .filter(v -> !types.containsKey(v))
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        }
+        jdbcTemplate.execute((ConnectionCallback<Void>) datasourceConnection -> {
+            OracleConnection con = datasourceConnection.unwrap(OracleConnection.class);
+            for (TypeMetadata type : types.values()) {
+                if (type.isCollection()) {
+                    instantiatorCache.getArrayFromCache(type.getTypeName(), con);
+                } else {
+                    instantiatorCache.getStructFromCache(type.getTypeName(), con);
+                }
+                instantiatorCache.setTypeMetadata(type);
+            }
+            return null;
+        });
+        log.info("Preloaded {} Oracle types", types.size());
+    }
+
+    /**
+     * Writes all preloaded types to snapshot file, to be used by loadSnapshot() on next start.
+     *
+     * @param file snapshot file, replaced atomically
+     */
+    public void exportSnapshot(Path file) {
+        List<TypeMetadata> types = new ArrayList<>(instantiatorCache.getTypeMetadata().values());
+        Map<String, StructDescriptor> structs = new HashMap<>();
+        Map<String, ArrayDescriptor> arrays = new HashMap<>();
+        for (TypeMetadata type : types) {
+            String typeName = type.getTypeName();
+            if (type.isCollection()) {
+                Optional.ofNullable(instantiatorCache.getCachedArray(typeName)).ifPresent(v -> arrays.put(typeName, v));
+            } else {
+                Optional.ofNullable(instantiatorCache.getCachedStruct(typeName))
+                    .ifPresent(v -> structs.put(typeName, v));
+            }
+        }
+        try {
+            new MetadataSnapshot(types, structs, arrays).write(file);
+        } catch (IOException ex) {
+            throw new ProcedureWrapperException("Cannot write metadata snapshot " + file, ex);
+        }
+    }
+
+    public CompletableFuture<Set<String>> loadSnapshot(Path file, JdbcTemplate jdbcTemplate) {
+        return loadSnapshot(file, jdbcTemplate, new DictionaryTypeMetadataSource(jdbcTemplate));
+    }
+
+    /**
+     * Validation runs on procedure executor of template datasource, so dictionary queries don't block common pool.
+     */
+    public CompletableFuture<Set<String>> loadSnapshot(Path file, JdbcTemplate jdbcTemplate,
+        TypeMetadataSource source) {
+        return loadSnapshot(file, jdbcTemplate, source,
+            ProcedureExecutor.forDataSource(jdbcTemplate.getDataSource()));
+    }
+
+    /**
+     * Loads types from snapshot file written by exportSnapshot(), and validates them against source in background.
+     * Types changed since snapshot was written and types using them are loaded again and the snapshot is rewritten.
+     * Missing or incompatible snapshot is skipped, types are then discovered on first use.
+     *
+     * @param file         snapshot file
+     * @param jdbcTemplate template used to rebuild changed types
+     * @param source       source of current type definitions
+     * @param executor     executor of validation, it runs blocking dictionary queries
+     * @return future completed after validation, with names of rebuilt types
+     */
+    public CompletableFuture<Set<String>> loadSnapshot(Path file, JdbcTemplate jdbcTemplate,
+        TypeMetadataSource source, Executor executor) {
+        MetadataSnapshot snapshot;
+        try {
+            snapshot = MetadataSnapshot.read(file).orElse(null);
+        } catch (IOException ex) {
+            log.warn("Cannot read metadata snapshot {}", file, ex);
+            snapshot = null;
+        }
+        if (snapshot == null) {
+            return CompletableFuture.completedFuture(Collections.emptySet());
+        }
+        snapshot.getStructs().forEach(instantiatorCache::registerStructDescriptor);
+        snapshot.getArrays().forEach(instantiatorCache::registerArrayDescriptor);
+        snapshot.getTypes().forEach(instantiatorCache::setTypeMetadata);
+        log.info("Loaded {} Oracle types from snapshot {}", snapshot.getTypes().size(), file);
+        List<TypeMetadata> types = snapshot.getTypes();
+        return CompletableFuture.supplyAsync(() -> validateSnapshot(file, jdbcTemplate, source, types), executor)
+            .whenComplete((v, ex) -> {
+                if (ex != null) {
+                    log.error("Cannot validate metadata snapshot {}", file, ex);
+                }
+            });
+    }
+
+    private Set<String> validateSnapshot(Path file, JdbcTemplate jdbcTemplate, TypeMetadataSource source,
+        List<TypeMetadata> types) {
+        Map<String, TypeMetadata> current = source.load(types.stream().map(TypeMetadata::getTypeName)
+            .collect(Collectors.toList()));
+        Set<String> changed = types.stream().filter(v -> !v.equals(current.get(v.getTypeName())))
+            .map(TypeMetadata::getTypeName).collect(Collectors.toCollection(LinkedHashSet::new));
+        if (changed.isEmpty()) {
+            return changed;
+        }
+        log.warn("Oracle types {} changed since snapshot {} was written, loading them again", changed, file);
+        //types using changed ones are invalidated too, they are loaded again so the snapshot keeps them
+        Set<String> invalidated = new LinkedHashSet<>();
+        changed.forEach(v -> invalidated.addAll(instantiatorCache.invalidate(v)));
+        preload(jdbcTemplate, source, invalidated.stream().filter(current::containsKey)
+            .collect(Collectors.toList()));
+        exportSnapshot(file);
+        return changed;
+    }
+
+    /**
+     * Invalidates cached type after DDL change. Types using it and types nested in it are invalidated too. Next call
+     * reads them again from database, calls in progress are not affected.
+     *
+     * @param typeName name of object or collection type
+     * @return names of invalidated types
+     */
+    public Set<String> invalidate(String typeName) {
+        Set<String> invalidated = instantiatorCache.invalidate(typeName);
+        log.info("Invalidated Oracle types {}", invalidated);
+        return invalidated;
+    }
+
+    /**
+     * Invalidates all cached types.
+     */
+    public void invalidateAll() {
+        instantiatorCache.invalidateAll();
+        log.info("Invalidated all Oracle types");
+    }
+
+    /**
+     * @return hit, miss, load time and eviction counters, by cache name
+     */
+    public Map<String, CacheStats> getCacheStats() {
+        return instantiatorCache.getStats();
+    }
+
+    /**
+     * Values of JDBC types are returned without lookup of conversion, other values are converted with registered
+     * conversions.
+     */
     public Object valueToDatabase(Object obj) {
+        if (obj == null || databaseTypes.contains(obj.getClass())) {
+            return obj;
+        }
         return this.instantiatorProvider.valueToDatabase(obj);
     }
 
+    /**
+     * Resolves conversion of declared type once, so encoders don't look it up for every value. Values of other class
+     * than declared, like subclasses, are converted by valueToDatabase().
+     *
+     * @param type declared type of values
+     * @return conversion of values to database
+     */
+    Function<Object, Object> getConversionToDatabase(Class<?> type) {
+        Class<?> boxed = MethodType.methodType(type).wrap().returnType();
+        if (databaseTypes.contains(boxed)) {
+            return v -> v;
+        }
+        Function<Object, ?> conversion = conversionsToDatabase.get(boxed);
+        if (conversion == null) {
+            return this::valueToDatabase;
+        }
+        return v -> v != null && v.getClass() == boxed ? conversion.apply(v) : valueToDatabase(v);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <S> void addConversionToDatabase(Class<S> source, Function<S, ?> conversion) {
+        instantiatorProvider.getTypeConversionRegistry().registerConversionToDatabase(source, conversion);
+        conversionsToDatabase.put(source, (Function<Object, ?>) conversion);
+    }
+
+    /**
+     * @return true if values of declared type are passed to driver without conversion
+     */
+    boolean isDatabaseType(Class<?> type) {
+        return databaseTypes.contains(MethodType.methodType(type).wrap().returnType());
+    }
+
+    /**
+     * Conversions used by generated mappers, the same as in reflective mapping.
+     */
+    private class MapperContext implements StructMapper.Context {
+        @Override
+        @SuppressWarnings("unchecked")
+        public <V> V convert(Object value, Class<V> type) {
+            if (value == null) {
+                return null;
+            }
+            Class<V> boxed = (Class<V>) MethodType.methodType(type).wrap().returnType();
+            if (boxed.isInstance(value)) {
+                return boxed.cast(value);
+            } else if (value instanceof OracleStruct) {
+                return getOutputObject(boxed, value);
+            }
+            return (V) instantiatorCache.convert(value, boxed);
+        }
+
+        @Override
+        public <V> List<V> convertList(Object value, Class<V> elementType) {
+            if (value == null) {
+                return null;
+            }
+            return lazyCollections ? new LazyDecodedList<>(() -> getOutputList(elementType, value))
+                : getOutputList(elementType, value);
+        }
+    }
 }
@@ -0,0 +1,66 @@
+package info.globalbus.oraclewrapper;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Nested collection decoded on first access. Decoding runs once, under lock, so the list can be shared between
+ * threads. Decoding errors are thrown on first access, not when the parent object is created. Modifications go to the
+ * decoded list, so the list is mutable like eagerly decoded one. Internal usage.
+ */
+class LazyDecodedList<T> extends AbstractList<T> {
+    private Supplier<List<T>> decoder;
+    private volatile List<T> decoded;
+
+    LazyDecodedList(Supplier<List<T>> decoder) {
+        this.decoder = decoder;
+    }
+
+    @Override
+    public T get(int index) {
+        return decoded().get(index);
+    }
+
+    @Override
+    public int size() {
+        return decoded().size();
+    }
+
+    @Override
+    public T set(int index, T element) {
+        return decoded().set(index, element);
+    }
+
+    @Override
+    public void add(int index, T element) {
+        decoded().add(index, element);
+        modCount++;
+    }
+
+    @Override
+    public T remove(int index) {
+        T removed = decoded().remove(index);
+        modCount++;
+        return removed;
+    }
+
+    boolean isDecoded() {
+        return decoded != null;
+    }
+
+    private List<T> decoded() {
+        List<T> current = decoded;
+        if (current == null) {
+            synchronized (this) {
+                current = decoded;
+                if (current == null) {
+                    current = decoder.get();
+                    decoded = current;
+                    decoder = null;
+                }
+            }
+        }
+        return current;
+    }
+}
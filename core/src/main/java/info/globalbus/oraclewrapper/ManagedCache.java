@@ -0,0 +1,266 @@
+package info.globalbus.oraclewrapper;
+
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Concurrent map with optional size bound and time to live. Reads of unbounded cache don't take locks, writes and
+ * access order of bounded cache are guarded by a lock. When the bound is exceeded, least recently used entry is
+ * evicted, expired entries are dropped on access. Eviction listener is called for every evicted or expired entry.
+ * Values are indexed by identity, so value lookup doesn't scan entries. Concurrent misses of the same key share one
+ * load. Internal usage.
+ */
+@RequiredArgsConstructor
+class ManagedCache<K, V> {
+    /**
+     * Size bound and time to live used for caches which are never evicted.
+     */
+    static final int UNBOUNDED = 0;
+    private final Map<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    /**
+     * Keys of bounded cache, least recently used first.
+     */
+    private final Map<K, Boolean> accessOrder = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<Identity, Set<K>> keysByValue = new ConcurrentHashMap<>();
+    private final Map<K, CompletableFuture<V>> loading = new ConcurrentHashMap<>();
+    private final Object lock = new Object();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder loadNanos = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final int maximumSize;
+    private final long timeToLiveNanos;
+    private final Runnable evictionListener;
+
+    ManagedCache() {
+        this(UNBOUNDED, UNBOUNDED);
+    }
+
+    ManagedCache(int maximumSize, long timeToLiveNanos) {
+        this(maximumSize, timeToLiveNanos, () -> { });
+    }
+
+    @FunctionalInterface
+    interface Loader<K, V> {
+        V load(K key) throws SQLException;
+    }
+
+    V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry != null && isExpired(entry)) {
+            if (removeEntry(key, entry)) {
+                evictions.increment();
+                evictionListener.run();
+            }
+            entry = null;
+        }
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        if (maximumSize != UNBOUNDED) {
+            synchronized (lock) {
+                accessOrder.get(key);
+            }
+        }
+        return entry.value;
+    }
+
+    V get(K key, Loader<K, V> loader) throws SQLException {
+        V value = get(key);
+        if (value != null) {
+            return value;
+        }
+        CompletableFuture<V> created = new CompletableFuture<>();
+        CompletableFuture<V> pending = loading.putIfAbsent(key, created);
+        if (pending != null) {
+            return await(pending);
+        }
+        try {
+            //other thread may have finished loading before this one registered
+            Entry<V> entry = entries.get(key);
+            value = entry != null && !isExpired(entry) ? entry.value : load(key, loader);
+            created.complete(value);
+            return value;
+        } catch (Throwable ex) {
+            created.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            loading.remove(key, created);
+        }
+    }
+
+    /**
+     * Loads value unconditionally, time spent in loader is recorded.
+     */
+    V load(K key, Loader<K, V> loader) throws SQLException {
+        long start = System.nanoTime();
+        V value = loader.load(key);
+        loadNanos.add(System.nanoTime() - start);
+        loads.increment();
+        put(key, value);
+        return value;
+    }
+
+    void put(K key, V value) {
+        synchronized (lock) {
+            Entry<V> previous = entries.put(key, new Entry<>(value));
+            if (previous != null) {
+                unindex(key, previous.value);
+            }
+            if (value != null) {
+                keysByValue.computeIfAbsent(new Identity(value), v -> ConcurrentHashMap.newKeySet()).add(key);
+            }
+            if (maximumSize != UNBOUNDED) {
+                accessOrder.put(key, Boolean.TRUE);
+                evictLeastRecentlyUsed();
+            }
+        }
+    }
+
+    boolean containsKey(K key) {
+        Entry<V> entry = entries.get(key);
+        return entry != null && !isExpired(entry);
+    }
+
+    boolean containsValue(V value) {
+        if (value == null) {
+            return false;
+        }
+        Set<K> keys = keysByValue.get(new Identity(value));
+        return keys != null && keys.stream().anyMatch(this::containsKey);
+    }
+
+    Set<K> keys() {
+        return entries.keySet();
+    }
+
+    void remove(K key) {
+        removeEntry(key, null);
+    }
+
+    void removeIf(Predicate<V> predicate) {
+        synchronized (lock) {
+            List<K> keys = entries.entrySet().stream().filter(v -> predicate.test(v.getValue().value))
+                .map(Map.Entry::getKey).collect(Collectors.toList());
+            keys.forEach(v -> removeEntry(v, null));
+        }
+    }
+
+    void clear() {
+        synchronized (lock) {
+            entries.clear();
+            accessOrder.clear();
+            keysByValue.clear();
+        }
+    }
+
+    CacheStats stats() {
+        return new CacheStats(entries.size(), hits.sum(), misses.sum(), loads.sum(), loadNanos.sum(),
+            evictions.sum());
+    }
+
+    private boolean isExpired(Entry<V> entry) {
+        return timeToLiveNanos != UNBOUNDED && System.nanoTime() - entry.created > timeToLiveNanos;
+    }
+
+    /**
+     * Called with lock held.
+     */
+    private void evictLeastRecentlyUsed() {
+        while (entries.size() > maximumSize && !accessOrder.isEmpty()) {
+            removeEntry(accessOrder.keySet().iterator().next(), null);
+            evictions.increment();
+            evictionListener.run();
+        }
+    }
+
+    /**
+     * @param expected entry removed only when still mapped, null to remove any entry
+     * @return whether entry was removed
+     */
+    private boolean removeEntry(K key, Entry<V> expected) {
+        synchronized (lock) {
+            Entry<V> entry = entries.get(key);
+            if (entry == null || expected != null && entry != expected) {
+                return false;
+            }
+            entries.remove(key);
+            accessOrder.remove(key);
+            unindex(key, entry.value);
+            return true;
+        }
+    }
+
+    private void unindex(K key, V value) {
+        if (value == null) {
+            return;
+        }
+        Identity identity = new Identity(value);
+        Set<K> keys = keysByValue.get(identity);
+        if (keys != null) {
+            keys.remove(key);
+            if (keys.isEmpty()) {
+                keysByValue.remove(identity);
+            }
+        }
+    }
+
+    private static <V> V await(CompletableFuture<V> pending) throws SQLException {
+        try {
+            return pending.join();
+        } catch (CompletionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof SQLException) {
+                throw (SQLException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * Value compared by identity, so values with costly or changing equals can be indexed.
+     */
+    private static class Identity {
+        private final Object value;
+
+        Identity(Object value) {
+            this.value = value;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof Identity && ((Identity) obj).value == value;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(value);
+        }
+    }
+
+    private static class Entry<V> {
+        private final V value;
+        private final long created = System.nanoTime();
+
+        Entry(V value) {
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package info.globalbus.oraclewrapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import lombok.AccessLevel;
+import lombok.Value;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import oracle.jdbc.OracleDriver;
+import oracle.jdbc.oracore.OracleType;
+import oracle.sql.ArrayDescriptor;
+import oracle.sql.SQLName;
+import oracle.sql.StructDescriptor;
+import oracle.sql.TypeDescriptor;
+
+/**
+ * Preloaded type definitions and descriptors, stored as compressed file. File header holds format version and
+ * driver version, snapshot written by other version is ignored. Only type definitions, driver type descriptors and
+ * collections holding them are read from file, other classes are rejected. Internal usage.
+ */
+@Slf4j
+@Value
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class MetadataSnapshot {
+    static final int FORMAT_VERSION = 1;
+    private static final int MAGIC = 0x4F574D53;
+    /**
+     * Classes allowed in snapshot, together with their subclasses.
+     */
+    private static final List<Class<?>> ALLOWED_TYPES = Arrays.asList(TypeMetadata.class,
+        TypeMetadata.Attribute.class, TypeDescriptor.class, OracleType.class, SQLName.class);
+    private static final Set<String> ALLOWED_CLASSES = new HashSet<>(Arrays.asList(String.class.getName(),
+        Number.class.getName(), Integer.class.getName(), Long.class.getName(), Short.class.getName(),
+        Boolean.class.getName(), ArrayList.class.getName(), HashMap.class.getName(), LinkedHashMap.class.getName(),
+        Arrays.asList().getClass().getName(), Collections.emptyList().getClass().getName(),
+        Collections.singletonList(null).getClass().getName(), "java.util.Collections$UnmodifiableCollection",
+        "java.util.Collections$UnmodifiableList", "java.util.Collections$UnmodifiableRandomAccessList"));
+    List<TypeMetadata> types;
+    Map<String, StructDescriptor> structs;
+    Map<String, ArrayDescriptor> arrays;
+
+    /**
+     * Writes snapshot to temporary file and moves it in place, so readers never see partial file.
+     */
+    void write(Path file) throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        Path temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            try (ObjectOutputStream out = new ObjectOutputStream(new GZIPOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeUTF(OracleDriver.getDriverVersion());
+                out.writeObject(new ArrayList<>(types));
+                out.writeObject(new HashMap<>(structs));
+                out.writeObject(new HashMap<>(arrays));
+            }
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * @return snapshot, empty when file doesn't exist or was written by other format or driver version
+     */
+    @SuppressWarnings("unchecked")
+    static Optional<MetadataSnapshot> read(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return Optional.empty();
+        }
+        try (ObjectInputStream in = new SnapshotInputStream(new GZIPInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                log.warn("File {} is not a metadata snapshot", file);
+                return Optional.empty();
+            }
+            int version = in.readInt();
+            String driverVersion = in.readUTF();
+            if (version != FORMAT_VERSION || !OracleDriver.getDriverVersion().equals(driverVersion)) {
+                log.warn("Metadata snapshot {} has format {} and driver {}, expected format {} and driver {}", file,
+                    version, driverVersion, FORMAT_VERSION, OracleDriver.getDriverVersion());
+                return Optional.empty();
+            }
+            return Optional.of(new MetadataSnapshot((List<TypeMetadata>) in.readObject(),
+                (Map<String, StructDescriptor>) in.readObject(), (Map<String, ArrayDescriptor>) in.readObject()));
+        } catch (ClassNotFoundException ex) {
+            throw new IOException("Cannot read metadata snapshot " + file, ex);
+        }
+    }
+
+    /**
+     * Object stream resolving only allowed classes, so snapshot file cannot instantiate arbitrary classes.
+     */
+    private static class SnapshotInputStream extends ObjectInputStream {
+        SnapshotInputStream(InputStream in) throws IOException {
+            super(in);
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+            Class<?> type = super.resolveClass(desc);
+            Class<?> component = type;
+            while (component.isArray()) {
+                component = component.getComponentType();
+            }
+            if (!isAllowed(component)) {
+                throw new InvalidClassException(desc.getName(), "Class is not allowed in metadata snapshot");
+            }
+            return type;
+        }
+
+        @Override
+        protected Class<?> resolveProxyClass(String[] interfaces) throws IOException {
+            throw new InvalidClassException("Proxy classes are not allowed in metadata snapshot");
+        }
+
+        private static boolean isAllowed(Class<?> type) {
+            return type.isPrimitive() || ALLOWED_CLASSES.contains(type.getName())
+                   || ALLOWED_TYPES.stream().anyMatch(v -> v.isAssignableFrom(type));
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package info.globalbus.oraclewrapper;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import lombok.AccessLevel;
+import lombok.Value;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * Gathers single object calls arriving within a window, and executes them as one call of batch procedure. Batch
+ * procedure takes collection of inputs and returns collection of results in the same order. Window is closed when
+ * it has maximum number of calls or after maximum delay from its first call, batch is executed on executor.
+ */
+class MicroBatchingCaller<T> implements BatchingProcedureCaller<T> {
+    private static final ScheduledThreadPoolExecutor TIMER = createTimer();
+    private final Lazy<ProcedureCaller<T>> batchCaller;
+    private final Executor executor;
+    private final int maxSize;
+    private final long maxDelayNanos;
+    private List<Pending<T>> pending = new ArrayList<>();
+    private ScheduledFuture<?> timer;
+
+    MicroBatchingCaller(Lazy<ProcedureCaller<T>> batchCaller, Executor executor, int maxSize, Duration maxDelay) {
+        this.batchCaller = batchCaller;
+        this.executor = executor;
+        this.maxSize = maxSize;
+        this.maxDelayNanos = maxDelay.toNanos();
+    }
+
+    private static ScheduledThreadPoolExecutor createTimer() {
+        ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread thread = new Thread(r, "procedure-batch-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        timer.setRemoveOnCancelPolicy(true);
+        return timer;
+    }
+
+    @Override
+    public CompletableFuture<T> mapObjectAsync(Object input) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        List<Pending<T>> full = null;
+        synchronized (this) {
+            pending.add(new Pending<>(input, future));
+            if (pending.size() >= maxSize) {
+                full = takePending();
+            } else if (pending.size() == 1) {
+                timer = TIMER.schedule(this::flush, maxDelayNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+        if (full != null) {
+            dispatch(full);
+        }
+        return future;
+    }
+
+    @Override
+    public T mapObject(Object input) {
+        try {
+            return mapObjectAsync(input).join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            throw ex;
+        }
+    }
+
+    private synchronized List<Pending<T>> takePending() {
+        List<Pending<T>> batch = pending;
+        pending = new ArrayList<>();
+        if (timer != null) {
+            timer.cancel(false);
+            timer = null;
+        }
+        return batch;
+    }
+
+    private void flush() {
+        List<Pending<T>> batch = takePending();
+        if (!batch.isEmpty()) {
+            dispatch(batch);
+        }
+    }
+
+    private void dispatch(List<Pending<T>> batch) {
+        try {
+            executor.execute(() -> execute(batch));
+        } catch (RejectedExecutionException ex) {
+            batch.forEach(v -> v.getFuture().completeExceptionally(ex));
+        }
+    }
+
+    private void execute(List<Pending<T>> batch) {
+        try {
+            List<Object> inputs = batch.stream().map(Pending::getInput).collect(Collectors.toList());
+            List<T> results = batchCaller.get().mapList(inputs);
+            int size = results == null ? 0 : results.size();
+            if (size != batch.size()) {
+                throw new ProcedureWrapperException("Batch procedure returned " + size + " results for "
+                    + batch.size() + " inputs");
+            }
+            for (int i = 0; i < size; i++) {
+                batch.get(i).getFuture().complete(results.get(i));
+            }
+        } catch (RuntimeException ex) {
+            batch.forEach(v -> v.getFuture().completeExceptionally(ex));
+        }
+    }
+
+    @Value
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    private static class Pending<T> {
+        Object input;
+        CompletableFuture<T> future;
+    }
+}
@@ -0,0 +1,61 @@
+package info.globalbus.oraclewrapper;
+
+import java.sql.SQLException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import oracle.jdbc.OracleArray;
+
+/**
+ * Reads OracleArray in slices of chunkSize elements and decodes them on demand, so only one slice of STRUCTs
+ * is materialized at a time. Null elements and null results of decoder are skipped.
+ */
+class OracleArraySpliterator<T> extends Spliterators.AbstractSpliterator<T> {
+    private final OracleArray array;
+    private final int length;
+    private final int chunkSize;
+    private final Function<Object, T> decoder;
+    private Object[] chunk;
+    private int chunkIndex;
+    private long nextIndex = 1;
+
+    OracleArraySpliterator(OracleArray array, int chunkSize, Function<Object, T> decoder) throws SQLException {
+        super(array.length(), Spliterator.ORDERED | Spliterator.NONNULL);
+        this.array = array;
+        this.length = array.length();
+        this.chunkSize = chunkSize;
+        this.decoder = decoder;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+        while (true) {
+            if (chunk != null && chunkIndex < chunk.length) {
+                Object element = chunk[chunkIndex];
+                chunk[chunkIndex++] = null;
+                T value = element == null ? null : decoder.apply(element);
+                if (value != null) {
+                    action.accept(value);
+                    return true;
+                }
+            } else if (nextIndex > length) {
+                chunk = null;
+                return false;
+            } else {
+                readChunk();
+            }
+        }
+    }
+
+    private void readChunk() {
+        int count = (int) Math.min(chunkSize, length - nextIndex + 1);
+        try {
+            chunk = (Object[]) array.getArray(nextIndex, count);
+        } catch (SQLException ex) {
+            throw new ProcedureWrapperException("Cannot read OracleArray", ex);
+        }
+        nextIndex += count;
+        chunkIndex = 0;
+    }
+}
@@ -0,0 +1,23 @@
+package info.globalbus.oraclewrapper;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import lombok.RequiredArgsConstructor;
+import oracle.sql.ARRAY;
+import oracle.sql.ArrayDescriptor;
+import org.springframework.jdbc.core.support.AbstractSqlTypeValue;
+
+/**
+ * Numeric collection created from primitive array, elements are converted by driver without boxing.
+ */
+@RequiredArgsConstructor
+class PrimitiveArrayValue extends AbstractSqlTypeValue {
+    private final InstantiatorCache instantiatorCache;
+    private final Object array;
+
+    @Override
+    public Object createTypeValue(Connection con, int sqlType, String typeName) throws SQLException {
+        final ArrayDescriptor desc = instantiatorCache.getArrayFromCache(typeName, con);
+        return new ARRAY(desc, instantiatorCache.getDummyConnection(), array);
+    }
+}
@@ -1,6 +1,8 @@
 package info.globalbus.oraclewrapper;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface ProcedureCaller<T> {
     String OUTPUT_PARAM = "output";
@@ -9,4 +11,34 @@ public interface ProcedureCaller<T> {
     List<T> mapList(Object... input);
 
     T mapObject(Object... input);
+
+    /**
+     * Default implementation decodes whole list, implementations should decode elements as stream is consumed.
+     */
+    default Stream<T> mapStream(Object... input) {
+        List<T> list = mapList(input);
+        return list == null ? Stream.empty() : list.stream();
+    }
+
+    /**
+     * Default implementation calls mapList for every set of input parameters.
+     */
+    default List<List<T>> mapListBatch(List<Object[]> inputs) {
+        List<List<T>> results = new ArrayList<>(inputs.size());
+        for (Object[] input : inputs) {
+            results.add(mapList(input));
+        }
+        return results;
+    }
+
+    /**
+     * Default implementation calls mapObject for every set of input parameters.
+     */
+    default List<T> mapObjectBatch(List<Object[]> inputs) {
+        List<T> results = new ArrayList<>(inputs.size());
+        for (Object[] input : inputs) {
+            results.add(mapObject(input));
+        }
+        return results;
+    }
 }
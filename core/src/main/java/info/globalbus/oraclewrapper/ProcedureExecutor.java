@@ -0,0 +1,122 @@
+package info.globalbus.oraclewrapper;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import javax.sql.DataSource;
+import lombok.AccessLevel;
+import lombok.Value;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Bounded executor for asynchronous procedure calls. One executor is shared by every wrapper of a datasource,
+ * with a number of threads equal to the connection pool size, so calls wait in queue instead of in the pool.
+ */
+@Slf4j
+public class ProcedureExecutor implements Executor {
+    public static final int DEFAULT_QUEUE_CAPACITY = 1000;
+    private static final String[] POOL_SIZE_GETTERS = {"getMaxActive", "getMaximumPoolSize", "getMaxTotal"};
+    private static final Map<DataSource, ProcedureExecutor> EXECUTORS = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor executor;
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder waitCount = new LongAdder();
+    private final LongAdder waitTime = new LongAdder();
+    private final AtomicLong maxWaitTime = new AtomicLong();
+
+    public ProcedureExecutor(int threads, int queueCapacity) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(queueCapacity), r -> {
+                Thread thread = new Thread(r, "procedure-executor-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Shared executor for datasource. Executor is created on first call, queue capacity of later calls is ignored.
+     *
+     * @param dataSource    datasource of procedure
+     * @param queueCapacity maximum number of calls waiting for a thread
+     * @return executor sized as connection pool of datasource
+     */
+    public static ProcedureExecutor forDataSource(DataSource dataSource, int queueCapacity) {
+        return EXECUTORS.computeIfAbsent(dataSource, ds -> new ProcedureExecutor(poolSize(ds), queueCapacity));
+    }
+
+    public static ProcedureExecutor forDataSource(DataSource dataSource) {
+        return forDataSource(dataSource, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    private static int poolSize(DataSource dataSource) {
+        for (String getter : POOL_SIZE_GETTERS) {
+            try {
+                Method method = dataSource.getClass().getMethod(getter);
+                Object size = method.invoke(dataSource);
+                if (size instanceof Integer && (Integer) size > 0) {
+                    return (Integer) size;
+                }
+            } catch (ReflectiveOperationException ex) {
+                log.trace("No {} on datasource {}", getter, dataSource.getClass());
+            }
+        }
+        int size = Runtime.getRuntime().availableProcessors();
+        log.warn("Cannot read connection pool size of {}, using {} threads", dataSource.getClass(), size);
+        return size;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        long queued = System.nanoTime();
+        try {
+            executor.execute(() -> {
+                recordWait(System.nanoTime() - queued);
+                command.run();
+            });
+        } catch (RejectedExecutionException ex) {
+            rejected.increment();
+            throw ex;
+        }
+    }
+
+    private void recordWait(long nanos) {
+        waitCount.increment();
+        waitTime.add(nanos);
+        maxWaitTime.accumulateAndGet(nanos, Math::max);
+    }
+
+    public Stats getStats() {
+        long count = waitCount.sum();
+        return new Stats(executor.getMaximumPoolSize(), executor.getActiveCount(), executor.getQueue().size(),
+            executor.getQueue().remainingCapacity(), rejected.sum(), executor.getCompletedTaskCount(),
+            count == 0 ? 0 : waitTime.sum() / count, maxWaitTime.get());
+    }
+
+    public void shutdown() {
+        EXECUTORS.values().remove(this);
+        executor.shutdown();
+    }
+
+    @Value
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    public static class Stats {
+        int poolSize;
+        int activeCount;
+        int queueDepth;
+        int queueRemainingCapacity;
+        long rejectedCount;
+        long completedCount;
+        long averageWaitNanos;
+        long maxWaitNanos;
+    }
+}
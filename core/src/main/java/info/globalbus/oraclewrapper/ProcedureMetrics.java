@@ -0,0 +1,54 @@
+package info.globalbus.oraclewrapper;
+
+/**
+ * Receives measurements of procedure calls. Every call is split into phases: conversion of input parameters,
+ * database round trip and decoding of output. All methods are called on the calling thread and should not block.
+ */
+public interface ProcedureMetrics {
+    ProcedureMetrics NONE = new ProcedureMetrics() {
+    };
+
+    enum Phase {
+        /**
+         * Java to database conversion of input parameters. Oracle objects are pickled when parameters are bound,
+         * so this part of encoding is measured in EXECUTE.
+         */
+        ENCODE,
+        /**
+         * Binding of parameters and procedure execution.
+         */
+        EXECUTE,
+        /**
+         * Database to Java conversion of output.
+         */
+        DECODE
+    }
+
+    default void recordPhase(String procedureName, Phase phase, long nanos) {
+    }
+
+    /**
+     * @param elements       number of decoded elements, -1 if unknown (for lazily decoded streams)
+     * @param allocatedBytes bytes allocated by calling thread during call, -1 if allocations are not tracked
+     */
+    default void recordCall(String procedureName, int elements, long allocatedBytes) {
+    }
+
+    /**
+     * Called for every statement prepared for a call.
+     *
+     * @param cached true if statement was taken from driver statement cache, without parse
+     */
+    default void recordPrepare(String procedureName, boolean cached) {
+    }
+
+    default void recordError(String procedureName, Phase phase, Throwable error) {
+    }
+
+    /**
+     * @return true if bytes allocated by every call should be measured
+     */
+    default boolean isAllocationTracked() {
+        return false;
+    }
+}
@@ -1,10 +1,11 @@
 package info.globalbus.oraclewrapper;
 
 import java.sql.SQLException;
+import java.time.Duration;
 import java.util.LinkedList;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Function;
 import lombok.Getter;
-import lombok.RequiredArgsConstructor;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.SqlParameter;
 import org.springframework.util.Assert;
@@ -32,6 +33,16 @@ public class ProcedureWrapperBuilder<T> {
         return this;
     }
 
+    /**
+     * Maps all output parameters of procedure into holder class with mapObject, parameters are matched by name to
+     * constructor parameters or properties. All outputs are read from a single call.
+     */
+    public ProcedureWrapperBuilder<T> outputHolder(Class<T> holderClass) {
+        data.clazz = holderClass;
+        data.outputHolder = true;
+        return this;
+    }
+
     public ProcedureWrapperBuilder<T> initializer(Function<BuilderData, StoredProcedureWrapper<T>> initializer) {
         data.initializer = initializer;
         return this;
@@ -42,9 +53,113 @@ public class ProcedureWrapperBuilder<T> {
         return this;
     }
 
+    /**
+     * Number of array elements decoded at once by mapStream.
+     */
+    public ProcedureWrapperBuilder<T> chunkSize(int chunkSize) {
+        data.chunkSize = chunkSize;
+        return this;
+    }
+
+    /**
+     * Number of rows fetched at once from cursor output by mapStream.
+     */
+    public ProcedureWrapperBuilder<T> fetchSize(int fetchSize) {
+        data.fetchSize = fetchSize;
+        return this;
+    }
+
+    /**
+     * Enables asynchronous calls on executor shared by every wrapper of the same datasource.
+     */
+    public ProcedureWrapperBuilder<T> async() {
+        data.async = true;
+        return this;
+    }
+
+    /**
+     * Enables asynchronous calls on given executor.
+     */
+    public ProcedureWrapperBuilder<T> async(ProcedureExecutor executor) {
+        data.async = true;
+        data.executor = executor;
+        return this;
+    }
+
+    /**
+     * Initializes wrapper in build(), instead of on first call. Errors in wrapper definition are thrown on startup.
+     */
+    public ProcedureWrapperBuilder<T> eager() {
+        data.eager = true;
+        return this;
+    }
+
+    /**
+     * Reports latency of every call phase, element counts and errors to given metrics.
+     */
+    public ProcedureWrapperBuilder<T> metrics(ProcedureMetrics metrics) {
+        data.metrics = metrics;
+        return this;
+    }
+
+    /**
+     * Decodes output collections with at least threshold elements in parallel, on common ForkJoinPool.
+     */
+    public ProcedureWrapperBuilder<T> parallelDecode(int threshold) {
+        return parallelDecode(threshold, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Decodes output collections with at least threshold elements in parallel, on given pool.
+     */
+    public ProcedureWrapperBuilder<T> parallelDecode(int threshold, ForkJoinPool pool) {
+        data.parallelThreshold = threshold;
+        data.decodePool = pool;
+        return this;
+    }
+
+    /**
+     * Enables Oracle implicit statement cache, with at least given size, on connections used by wrapper. Without
+     * it, statement caching is left to connection pool configuration.
+     */
+    public ProcedureWrapperBuilder<T> statementCache(int size) {
+        data.statementCacheSize = size;
+        return this;
+    }
+
+    /**
+     * Concurrent mapObject and mapList calls with equal input share one execution and its result, instead of each
+     * taking a connection. Calls within transaction are not shared.
+     */
+    public ProcedureWrapperBuilder<T> coalesceCalls() {
+        data.coalesceCalls = true;
+        return this;
+    }
+
+    /**
+     * Gathers single object calls of getMicroBatch() arriving within maxDelay, up to maxSize calls, into one call
+     * of batch procedure. Batch procedure takes collection of inputs as its only input, and returns collection of
+     * results in the same order (mapList). Batches are executed on executor set with async(), or on executor
+     * shared by every wrapper of the same datasource.
+     */
+    public ProcedureWrapperBuilder<T> microBatch(Lazy<ProcedureCaller<T>> batchProcedure, int maxSize,
+        Duration maxDelay) {
+        data.batchProcedure = batchProcedure;
+        data.batchSize = maxSize;
+        data.batchDelay = maxDelay;
+        return this;
+    }
+
     public LazyInitializer build() {
         data.validate();
-        return new LazyInitializer(data);
+        if ((data.async || data.batchProcedure != null) && data.executor == null) {
+            data.executor = ProcedureExecutor.forDataSource(data.jdbcTemplate.getDataSource());
+        }
+        LazyInitializer lazyInitializer = new LazyInitializer(data);
+        if (data.eager) {
+            lazyInitializer.get();
+        }
+        return lazyInitializer;
     }
 
     @Getter
@@ -55,34 +170,96 @@ public class ProcedureWrapperBuilder<T> {
         JdbcTemplate jdbcTemplate;
         InstantiatorWrapper instantiatorWrapper;
         Class<T> clazz;
+        boolean async;
+        ProcedureExecutor executor;
+        int chunkSize = StoredProcedureWrapper.DEFAULT_CHUNK_SIZE;
+        int fetchSize = StoredProcedureWrapper.DEFAULT_CHUNK_SIZE;
+        boolean eager;
+        ProcedureMetrics metrics = ProcedureMetrics.NONE;
+        int parallelThreshold;
+        ForkJoinPool decodePool;
+        int statementCacheSize = StatementReuse.POOL_DEFAULT;
+        boolean outputHolder;
+        boolean coalesceCalls;
+        Lazy<ProcedureCaller<T>> batchProcedure;
+        int batchSize;
+        Duration batchDelay;
 
         void validate() {
             Assert.hasText(procedureName, "procedureName is required parameter");
             Assert.notNull(jdbcTemplate, "jdbcTemplate is required parameter");
             Assert.notNull(instantiatorWrapper, "instantiatorWrapper is required parameter");
+            Assert.isTrue(chunkSize > 0, "chunkSize must be positive");
+            Assert.isTrue(fetchSize > 0, "fetchSize must be positive");
+            Assert.notNull(metrics, "metrics cannot be null");
+            Assert.isTrue(parallelThreshold >= 0, "parallelThreshold cannot be negative");
+            Assert.isTrue(statementCacheSize >= 0, "statementCacheSize cannot be negative");
+            if (parallelThreshold > 0) {
+                Assert.notNull(decodePool, "decodePool cannot be null");
+            }
+            if (batchProcedure != null) {
+                Assert.isTrue(batchSize > 0, "batchSize must be positive");
+                Assert.isTrue(batchDelay != null && !batchDelay.isNegative() && !batchDelay.isZero(),
+                    "batchDelay must be positive");
+            }
             if (clazz == null) {
                 Assert.notNull(initializer, "initializer or clazz must be provided");
             }
         }
     }
 
-    @RequiredArgsConstructor
+    /**
+     * Initializes wrapper once, on first call. After initialization, get() is a single volatile read, lock is taken
+     * only by initialization and reset. Asynchronous and batching callers are created with initializer, so they take no
+     * lock.
+     */
     public class LazyInitializer implements Lazy<ProcedureCaller<T>> {
         final BuilderData data;
-        ProcedureCaller<T> procedureCaller;
+        volatile ProcedureCaller<T> procedureCaller;
+        final AsyncProcedureCaller<T> asyncCaller;
+        final BatchingProcedureCaller<T> batchingCaller;
+
+        LazyInitializer(BuilderData data) {
+            this.data = data;
+            this.asyncCaller = data.async ? new AsyncStoredProcedureCaller<>(this, data.executor) : null;
+            this.batchingCaller = data.batchProcedure != null ? new MicroBatchingCaller<>(data.batchProcedure,
+                data.executor, data.batchSize, data.batchDelay) : null;
+        }
 
         @Override
-        public synchronized ProcedureCaller<T> get() {
-            if (procedureCaller == null) {
-                procedureCaller = init();
+        public ProcedureCaller<T> get() {
+            ProcedureCaller<T> caller = procedureCaller;
+            if (caller == null) {
+                synchronized (this) {
+                    caller = procedureCaller;
+                    if (caller == null) {
+                        caller = init();
+                        procedureCaller = caller;
+                    }
+                }
             }
-            return procedureCaller;
+            return caller;
+        }
+
+        /**
+         * Asynchronous variant of wrapper. Wrapper is initialized on executor thread on first call.
+         */
+        public AsyncProcedureCaller<T> getAsync() {
+            Assert.state(data.async, "async() must be set on builder");
+            return asyncCaller;
+        }
+
+        /**
+         * Single object calls executed in batches of batch procedure.
+         */
+        public BatchingProcedureCaller<T> getMicroBatch() {
+            Assert.state(data.batchProcedure != null, "microBatch() must be set on builder");
+            return batchingCaller;
         }
 
         private ProcedureCaller<T> init() {
             if (data.initializer == null) {
-                data.initializer = d -> new StoredProcedureWrapper<>(data.jdbcTemplate, data.procedureName,
-                    data.instantiatorWrapper, data.clazz);
+                data.initializer = d -> new StoredProcedureWrapper<>(d);
             }
             StoredProcedureWrapper<T> wrapper = data.initializer.apply(data);
             try {
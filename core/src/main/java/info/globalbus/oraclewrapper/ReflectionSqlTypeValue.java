@@ -3,10 +3,14 @@ package info.globalbus.oraclewrapper;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
+import java.sql.Connection;
 import java.sql.SQLException;
-import java.util.LinkedList;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Function;
 import lombok.AccessLevel;
 import lombok.Value;
 import lombok.experimental.FieldDefaults;
@@ -17,6 +21,7 @@ import org.dalesbred.internal.instantiation.NamedTypeList;
 import org.dalesbred.internal.jdbc.ResultSetUtils;
 import org.springframework.jdbc.core.SqlTypeValue;
 
+import static info.globalbus.oraclewrapper.internal.util.ReflectionUtils.compileGetter;
 import static info.globalbus.oraclewrapper.internal.util.ReflectionUtils.findField;
 import static info.globalbus.oraclewrapper.internal.util.ReflectionUtils.findGetterOrSetter;
 
@@ -26,25 +31,145 @@ import static info.globalbus.oraclewrapper.internal.util.ReflectionUtils.findGet
 @Slf4j
 class ReflectionSqlTypeValue<T> {
     private final Class<T> clazz;
+    private final String typeName;
     private final InstantiatorWrapper instantiatorWrapper;
-    private final List<MethodFieldWrapper> fields = new LinkedList<>();
+    private volatile MethodFieldWrapper[] fields;
+    private volatile EncoderPlan plan;
+    private volatile long generation;
+    private volatile long mappedNanos;
 
+    /**
+     * @param con connection used to read type, null to map fields on first use, when nested types may not be cached
+     */
     ReflectionSqlTypeValue(Class<T> clazz, OracleConnection con, String typeName,
         InstantiatorWrapper instantiatorWrapper) throws SQLException {
-        final StructDescriptor desc = instantiatorWrapper.getInstantiatorCache().getStructFromCache(typeName, con);
         this.clazz = clazz;
+        this.typeName = typeName;
         this.instantiatorWrapper = instantiatorWrapper;
-        mapFields(desc, con);
+        this.generation = instantiatorWrapper.getInstantiatorCache().getGeneration();
+        if (con != null) {
+            this.mappedNanos = System.nanoTime();
+            this.fields = mapFields(con);
+            this.plan = buildPlan(con);
+        }
     }
 
     SqlTypeValue getSqlTypeValue(Object obj) {
-        return new MappedSqlTypeValue(fields, instantiatorWrapper, obj);
+        return new MappedSqlTypeValue(this, instantiatorWrapper, obj);
+    }
+
+    /**
+     * @param elements objects of mapped class
+     * @return collection of structs, converted in one pass
+     */
+    SqlTypeValue getArrayValue(Collection<?> elements) {
+        return new StructArrayValue(this, instantiatorWrapper, elements);
+    }
+
+    String getTypeName() {
+        return typeName;
+    }
+
+    /**
+     * @param con connection used to read type, when fields were not mapped yet, type was invalidated or descriptor
+     *            was evicted or expired since
+     * @return mapped fields, in order of type attributes
+     */
+    MethodFieldWrapper[] getFields(Connection con) throws SQLException {
+        InstantiatorCache cache = instantiatorWrapper.getInstantiatorCache();
+        long current = cache.getGeneration();
+        MethodFieldWrapper[] mapped = fields;
+        if (mapped == null || current != generation || cache.isExpired(mappedNanos)) {
+            synchronized (this) {
+                mapped = fields;
+                if (mapped == null || current != generation || cache.isExpired(mappedNanos)) {
+                    mappedNanos = System.nanoTime();
+                    mapped = mapFields(con.unwrap(OracleConnection.class));
+                    fields = mapped;
+                    plan = null;
+                    generation = current;
+                }
+            }
+        }
+        return mapped;
+    }
+
+    /**
+     * @param con connection used to resolve descriptors, when plan was not built yet or type was invalidated
+     * @return encoding plan of mapped class, built at registration and after invalidation, eviction or expiry
+     */
+    EncoderPlan getPlan(Connection con) throws SQLException {
+        getFields(con);
+        EncoderPlan current = plan;
+        if (current == null) {
+            synchronized (this) {
+                current = plan;
+                if (current == null) {
+                    current = buildPlan(con);
+                    plan = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private synchronized EncoderPlan buildPlan(Connection con) throws SQLException {
+        InstantiatorCache cache = instantiatorWrapper.getInstantiatorCache();
+        MethodFieldWrapper[] mapped = fields;
+        EncoderPlan.FieldEncoder[] encoders = new EncoderPlan.FieldEncoder[mapped.length];
+        for (int i = 0; i < mapped.length; i++) {
+            ListParams listParams = mapped[i].getListParams();
+            EncoderPlan.ValueEncoder encoder;
+            if (listParams == null) {
+                encoder = valueEncoder(con, mapped[i].getType());
+            } else {
+                encoder = EncoderPlan.array(cache.getArrayFromCache(listParams.getTypeName(), con),
+                    cache.getDummyConnection(), valueEncoder(con, listParams.getGenericType()));
+            }
+            encoders[i] = new EncoderPlan.FieldEncoder(mapped[i].getGetter(), encoder);
+        }
+        return new EncoderPlan(typeName, cache.getStructFromCache(typeName, con), cache.getDummyConnection(),
+            encoders);
     }
 
-    private void mapFields(StructDescriptor desc, OracleConnection con) throws SQLException {
-        NamedTypeList fieldList = instantiatorWrapper.getInstantiatorCache().inConnection(desc, con, () ->
-            ResultSetUtils.getTypes(desc.getMetaData()));
-        for (String f : fieldList.getNames()) {
+    /**
+     * Values of classes mapped by ReflectionSqlTypeValue are encoded with their plan, values of JDBC types are
+     * passed as they are, other values are converted with registered conversion, resolved once for declared type.
+     */
+    private EncoderPlan.ValueEncoder valueEncoder(Connection con, Class<?> type) throws SQLException {
+        ReflectionSqlTypeValue<?> mapping = instantiatorWrapper.getInstantiatorCache().getInputMapping(type);
+        if (mapping != null && mapping != this) {
+            return mapping.getPlan(con).asValueEncoder();
+        }
+        if (instantiatorWrapper.isDatabaseType(type)) {
+            return (c, v) -> v;
+        }
+        String nestedTypeName = SqlStructParameter.getTypeName(type);
+        Function<Object, Object> conversion = instantiatorWrapper.getConversionToDatabase(type);
+        return (c, v) -> {
+            Object value = conversion.apply(v);
+            if (value instanceof MappedSqlTypeValue) {
+                return ((MappedSqlTypeValue) value).createTypeValue(c, Types.STRUCT, nestedTypeName);
+            }
+            return value;
+        };
+    }
+
+    private MethodFieldWrapper[] mapFields(OracleConnection con) throws SQLException {
+        InstantiatorCache cache = instantiatorWrapper.getInstantiatorCache();
+        StructDescriptor desc = cache.getStructFromCache(typeName, con);
+        List<String> fieldNames = cache.getAttributeNames(typeName);
+        if (fieldNames == null) {
+            NamedTypeList fieldList = cache.inConnection(desc, con, () ->
+                ResultSetUtils.getTypes(desc.getMetaData()));
+            fieldNames = fieldList.getNames();
+        }
+        Optional<MethodFieldWrapper[]> generated = mapGeneratedFields(con, fieldNames);
+        if (generated.isPresent()) {
+            return generated.get();
+        }
+        List<MethodFieldWrapper> mapped = new ArrayList<>(fieldNames.size());
+        for (String f : fieldNames) {
             Method value = findGetterOrSetter(clazz, f, true).orElseThrow(() ->
                 new ProcedureWrapperException("Property " + f + " not found in object " + clazz.getName()));
             Class<?> innerType = value.getReturnType();
@@ -58,29 +183,75 @@ class ReflectionSqlTypeValue<T> {
                     ParameterizedType listType = (ParameterizedType) field.getGenericType();
                     Class<?> genericType = (Class<?>) (listType).getActualTypeArguments()[0];
                     registerType(con, genericType);
+                    cache.addNestedType(typeName, arrayName);
+                    if (genericType.getAnnotation(OracleStruct.class) != null) {
+                        cache.addNestedType(arrayName, SqlStructParameter.getTypeName(genericType));
+                    }
                     listParams = new ListParams(arrayName, genericType);
                 } else {
                     throw new ProcedureWrapperException("Cannot find OracleArray annotation");
                 }
             }
             registerType(con, innerType);
-            fields.add(new MethodFieldWrapper(value, listParams));
+            if (innerType.getAnnotation(OracleStruct.class) != null) {
+                cache.addNestedType(typeName, SqlStructParameter.getTypeName(innerType));
+            }
+            mapped.add(new MethodFieldWrapper(innerType, compileGetter(value), listParams));
+        }
+        return mapped.toArray(new MethodFieldWrapper[0]);
+    }
+
+    /**
+     * Maps fields with generated StructMapper, empty when class has no mapper or some attribute has no property.
+     */
+    @SuppressWarnings("unchecked")
+    private Optional<MethodFieldWrapper[]> mapGeneratedFields(OracleConnection con, List<String> fieldNames)
+        throws SQLException {
+        Optional<StructMapper<T>> found = StructMappers.find(clazz).filter(StructMapper::isEncodable);
+        if (!found.isPresent()) {
+            return Optional.empty();
+        }
+        StructMapper<Object> mapper = (StructMapper<Object>) found.get();
+        InstantiatorCache cache = instantiatorWrapper.getInstantiatorCache();
+        MethodFieldWrapper[] mapped = new MethodFieldWrapper[fieldNames.size()];
+        for (int i = 0; i < mapped.length; i++) {
+            int index = StructMappers.indexOf(mapper, fieldNames.get(i));
+            if (index < 0) {
+                return Optional.empty();
+            }
+            StructProperty property = mapper.getProperties().get(index);
+            ListParams listParams = null;
+            if (property.getArrayTypeName() != null && property.getElementType() != null) {
+                Class<?> elementType = property.getElementType();
+                registerType(con, elementType);
+                cache.addNestedType(typeName, property.getArrayTypeName());
+                if (elementType.getAnnotation(OracleStruct.class) != null) {
+                    cache.addNestedType(property.getArrayTypeName(), SqlStructParameter.getTypeName(elementType));
+                }
+                listParams = new ListParams(property.getArrayTypeName(), elementType);
+            }
+            registerType(con, property.getType());
+            if (property.getType().getAnnotation(OracleStruct.class) != null) {
+                cache.addNestedType(typeName, SqlStructParameter.getTypeName(property.getType()));
+            }
+            mapped[i] = new MethodFieldWrapper(property.getType(), object -> mapper.get(object, index), listParams);
         }
+        return Optional.of(mapped);
     }
 
-    private void registerType(OracleConnection con, Class<?> innerType) throws SQLException {
+    private <S> void registerType(OracleConnection con, Class<S> innerType) throws SQLException {
         if (innerType.getAnnotation(OracleStruct.class) != null && !instantiatorWrapper.getInstantiatorCache()
             .isKnownInput(innerType)) {
-            ReflectionSqlTypeValue<?> reflectionSqlTypeValue = new ReflectionSqlTypeValue<>(innerType, con,
-                SqlStructParameter.getTypeName(innerType), instantiatorWrapper);
-            instantiatorWrapper.registerConversionToDatabase(innerType, reflectionSqlTypeValue::getSqlTypeValue);
+            instantiatorWrapper.registerInputMapping(innerType, new ReflectionSqlTypeValue<>(innerType, con,
+                SqlStructParameter.getTypeName(innerType), instantiatorWrapper));
         }
     }
 
     @Value
     @FieldDefaults(level = AccessLevel.PRIVATE)
     static class MethodFieldWrapper {
-        Method method;
+        Class<?> type;
+        Function<Object, Object> getter;
         ListParams listParams;
     }
 
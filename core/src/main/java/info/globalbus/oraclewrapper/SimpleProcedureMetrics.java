@@ -0,0 +1,187 @@
+package info.globalbus.oraclewrapper;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.AccessLevel;
+import lombok.Value;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * In-memory ProcedureMetrics, with latency histogram of every phase and call, element and error counters per
+ * procedure. Histograms have power of two buckets, so percentiles are upper bounds within a factor of two.
+ */
+public class SimpleProcedureMetrics implements ProcedureMetrics {
+    private final Map<String, ProcedureRecord> procedures = new ConcurrentHashMap<>();
+    private final boolean allocationTracked;
+
+    public SimpleProcedureMetrics() {
+        this(false);
+    }
+
+    /**
+     * @param allocationTracked measure bytes allocated by every call, costs two MXBean reads per call
+     */
+    public SimpleProcedureMetrics(boolean allocationTracked) {
+        this.allocationTracked = allocationTracked;
+    }
+
+    @Override
+    public void recordPhase(String procedureName, Phase phase, long nanos) {
+        record(procedureName).phases.get(phase).record(nanos);
+    }
+
+    @Override
+    public void recordCall(String procedureName, int elements, long allocatedBytes) {
+        ProcedureRecord record = record(procedureName);
+        record.calls.increment();
+        if (elements > 0) {
+            record.elements.add(elements);
+        }
+        if (allocatedBytes > 0) {
+            record.allocatedBytes.add(allocatedBytes);
+        }
+    }
+
+    @Override
+    public void recordPrepare(String procedureName, boolean cached) {
+        ProcedureRecord record = record(procedureName);
+        record.prepares.increment();
+        if (cached) {
+            record.cachedPrepares.increment();
+        }
+    }
+
+    @Override
+    public void recordError(String procedureName, Phase phase, Throwable error) {
+        ProcedureRecord record = record(procedureName);
+        record.calls.increment();
+        record.errors.increment();
+    }
+
+    @Override
+    public boolean isAllocationTracked() {
+        return allocationTracked;
+    }
+
+    /**
+     * @return statistics by procedure name
+     */
+    public Map<String, ProcedureStats> getStats() {
+        Map<String, ProcedureStats> stats = new ConcurrentHashMap<>();
+        procedures.forEach((name, record) -> stats.put(name, record.stats()));
+        return Collections.unmodifiableMap(stats);
+    }
+
+    private ProcedureRecord record(String procedureName) {
+        return procedures.computeIfAbsent(procedureName, k -> new ProcedureRecord());
+    }
+
+    @Value
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    public static class ProcedureStats {
+        long calls;
+        long errors;
+        long elements;
+        long allocatedBytes;
+        long prepares;
+        long cachedPrepares;
+        Map<Phase, LatencyStats> phases;
+
+        public double getErrorRate() {
+            return calls == 0 ? 0 : (double) errors / calls;
+        }
+
+        /**
+         * @return number of statements parsed by driver, not taken from statement cache
+         */
+        public long getParses() {
+            return prepares - cachedPrepares;
+        }
+    }
+
+    @Value
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    public static class LatencyStats {
+        long count;
+        long totalNanos;
+        long maxNanos;
+        long p50Nanos;
+        long p99Nanos;
+
+        public long getMeanNanos() {
+            return count == 0 ? 0 : totalNanos / count;
+        }
+    }
+
+    private static class ProcedureRecord {
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder elements = new LongAdder();
+        private final LongAdder allocatedBytes = new LongAdder();
+        private final LongAdder prepares = new LongAdder();
+        private final LongAdder cachedPrepares = new LongAdder();
+        private final Map<Phase, Histogram> phases = new EnumMap<>(Phase.class);
+
+        ProcedureRecord() {
+            for (Phase phase : Phase.values()) {
+                phases.put(phase, new Histogram());
+            }
+        }
+
+        ProcedureStats stats() {
+            Map<Phase, LatencyStats> latencies = new EnumMap<>(Phase.class);
+            phases.forEach((phase, histogram) -> latencies.put(phase, histogram.stats()));
+            return new ProcedureStats(calls.sum(), errors.sum(), elements.sum(), allocatedBytes.sum(), prepares.sum(),
+                cachedPrepares.sum(), Collections.unmodifiableMap(latencies));
+        }
+    }
+
+    /**
+     * Histogram with bucket per power of two of nanoseconds.
+     */
+    private static class Histogram {
+        private final LongAdder[] buckets = new LongAdder[Long.SIZE];
+        private final LongAdder total = new LongAdder();
+        private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+        Histogram() {
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        void record(long nanos) {
+            long value = Math.max(nanos, 0);
+            buckets[Math.max(Long.SIZE - 1 - Long.numberOfLeadingZeros(value), 0)].increment();
+            total.add(value);
+            max.accumulate(value);
+        }
+
+        LatencyStats stats() {
+            long[] counts = new long[buckets.length];
+            long count = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                counts[i] = buckets[i].sum();
+                count += counts[i];
+            }
+            return new LatencyStats(count, total.sum(), max.get(), percentile(counts, count, 0.5),
+                percentile(counts, count, 0.99));
+        }
+
+        private long percentile(long[] counts, long count, double percentile) {
+            long rank = (long) Math.ceil(count * percentile);
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank && seen > 0) {
+                    return Math.min(i == Long.SIZE - 1 ? Long.MAX_VALUE : (2L << i) - 1, max.get());
+                }
+            }
+            return 0;
+        }
+    }
+}
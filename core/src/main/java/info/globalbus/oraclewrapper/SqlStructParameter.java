@@ -4,6 +4,7 @@ import java.sql.Types;
 import lombok.Getter;
 import lombok.experimental.UtilityClass;
 import lombok.extern.slf4j.Slf4j;
+import oracle.jdbc.OracleTypes;
 import org.springframework.jdbc.core.SqlOutParameter;
 import org.springframework.jdbc.core.SqlParameter;
 import org.springframework.util.StringUtils;
@@ -15,6 +16,13 @@ public class SqlStructParameter {
         return new SqlStructInParameter(name, getTypeName(clazz), clazz);
     }
 
+    /**
+     * Collection of structs, bound from List (or any Collection) of clazz objects in one call.
+     */
+    public SqlParameter createInArray(String name, Class<?> clazz, String arrayTypeName) {
+        return new SqlStructInArrayParameter(name, getTypeName(clazz), clazz, arrayTypeName.toUpperCase());
+    }
+
     public SqlParameter createOut(String name, Class<?> clazz) {
         return new SqlStructOutParameter(name, getTypeName(clazz), clazz);
     }
@@ -23,6 +31,27 @@ public class SqlStructParameter {
         return new SqlStructOutParameter(name, getTypeName(clazz), clazz, arrayTypeName.toUpperCase());
     }
 
+    /**
+     * Collection of numbers, bound from double[], long[] or int[] without boxing of elements.
+     */
+    public SqlParameter createInNumberArray(String name, String arrayTypeName) {
+        return new SqlParameter(name, Types.ARRAY, arrayTypeName.toUpperCase());
+    }
+
+    /**
+     * Collection of numbers, read without boxing of elements when wrapper class is double[], long[] or int[].
+     */
+    public SqlParameter createOutNumberArray(String name, String arrayTypeName) {
+        return new SqlOutParameter(name, Types.ARRAY, arrayTypeName.toUpperCase());
+    }
+
+    /**
+     * REF CURSOR, rows are mapped to clazz and read lazily by mapStream, with fetch size set on builder.
+     */
+    public SqlParameter createOutCursor(String name, Class<?> clazz) {
+        return new SqlStructCursorParameter(name, clazz);
+    }
+
     public String getTypeName(Class<?> clazz) {
         OracleStruct annotation = clazz.getAnnotation(OracleStruct.class);
         String typeName;
@@ -50,6 +79,19 @@ public class SqlStructParameter {
         }
     }
 
+    static final class SqlStructInArrayParameter extends SqlParameter implements SqlClassHolder {
+        @Getter
+        private final Class<?> clazz;
+        @Getter
+        private final String structTypeName;
+
+        private SqlStructInArrayParameter(String name, String typeName, Class<?> clazz, String arrayTypeName) {
+            super(name, Types.ARRAY, arrayTypeName);
+            this.clazz = clazz;
+            this.structTypeName = typeName;
+        }
+    }
+
     static final class SqlStructOutParameter extends SqlOutParameter implements SqlClassHolder {
         @Getter
         private final Class<?> clazz;
@@ -68,4 +110,14 @@ public class SqlStructParameter {
             this.structTypeName = typeName;
         }
     }
+
+    static final class SqlStructCursorParameter extends SqlOutParameter implements SqlClassHolder {
+        @Getter
+        private final Class<?> clazz;
+
+        private SqlStructCursorParameter(String name, Class<?> clazz) {
+            super(name, OracleTypes.CURSOR);
+            this.clazz = clazz;
+        }
+    }
 }
@@ -0,0 +1,82 @@
+package info.globalbus.oraclewrapper;
+
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.SQLException;
+import lombok.RequiredArgsConstructor;
+import oracle.jdbc.OracleConnection;
+import oracle.jdbc.OracleStatement;
+import org.springframework.jdbc.core.CallableStatementCreator;
+import org.springframework.jdbc.core.ParameterDisposer;
+import org.springframework.jdbc.core.SqlProvider;
+
+/**
+ * Prepares procedure call statements. When cache size is set, Oracle implicit statement cache is enabled on every
+ * connection used by wrapper, so call string is parsed once per physical connection instead of once per call.
+ * Every prepare is reported to metrics, with information if statement was taken from cache. Internal usage.
+ */
+@RequiredArgsConstructor
+class StatementReuse {
+    static final int POOL_DEFAULT = 0;
+    private final int cacheSize;
+    private final ProcedureMetrics metrics;
+    private final String procedureName;
+
+    CallableStatement prepare(Connection con, String callString) throws SQLException {
+        return prepare(con, c -> c.prepareCall(callString));
+    }
+
+    CallableStatement prepare(Connection con, CallableStatementCreator creator) throws SQLException {
+        enableCache(con);
+        CallableStatement cs = creator.createCallableStatement(con);
+        metrics.recordPrepare(procedureName, isCached(cs));
+        return cs;
+    }
+
+    /**
+     * @return creator preparing statements with this strategy, parameter cleanup and SQL are delegated
+     */
+    CallableStatementCreator wrap(CallableStatementCreator creator) {
+        return new ReusingCreator(creator);
+    }
+
+    private void enableCache(Connection con) throws SQLException {
+        if (cacheSize == POOL_DEFAULT || !con.isWrapperFor(OracleConnection.class)) {
+            return;
+        }
+        OracleConnection oracleConnection = con.unwrap(OracleConnection.class);
+        if (oracleConnection.getStatementCacheSize() < cacheSize) {
+            oracleConnection.setStatementCacheSize(cacheSize);
+        }
+        if (!oracleConnection.getImplicitCachingEnabled()) {
+            oracleConnection.setImplicitCachingEnabled(true);
+        }
+    }
+
+    private static boolean isCached(CallableStatement cs) throws SQLException {
+        return cs.isWrapperFor(OracleStatement.class)
+               && cs.unwrap(OracleStatement.class).creationState() != OracleStatement.NEW;
+    }
+
+    @RequiredArgsConstructor
+    private class ReusingCreator implements CallableStatementCreator, ParameterDisposer, SqlProvider {
+        private final CallableStatementCreator delegate;
+
+        @Override
+        public CallableStatement createCallableStatement(Connection con) throws SQLException {
+            return prepare(con, delegate);
+        }
+
+        @Override
+        public void cleanupParameters() {
+            if (delegate instanceof ParameterDisposer) {
+                ((ParameterDisposer) delegate).cleanupParameters();
+            }
+        }
+
+        @Override
+        public String getSql() {
+            return delegate instanceof SqlProvider ? ((SqlProvider) delegate).getSql() : null;
+        }
+    }
+}
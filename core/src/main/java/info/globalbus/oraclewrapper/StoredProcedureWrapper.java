@@ -1,37 +1,86 @@
 package info.globalbus.oraclewrapper;
 
+import java.sql.CallableStatement;
 import java.sql.Connection;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.function.Consumer;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import javax.sql.DataSource;
 import oracle.jdbc.OracleConnection;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.jdbc.core.CallableStatementCreator;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.SqlOutParameter;
 import org.springframework.jdbc.core.SqlParameter;
+import org.springframework.jdbc.core.StatementCreatorUtils;
+import org.springframework.jdbc.datasource.DataSourceUtils;
 import org.springframework.jdbc.object.StoredProcedure;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 /**
  * Stored procedure wrapper for Oracle Objects. One object can handle only one Oracle procedure.
- * For procedures which have more than one output parameter, class must be inherit.
+ * For procedures which have more than one output parameter, map them into holder class (outputHolder on builder)
+ * or inherit class.
  */
 public class StoredProcedureWrapper<T> implements ProcedureCaller<T> {
+    public static final int DEFAULT_CHUNK_SIZE = 1000;
     protected final InternalStoredProcedure internal;
     protected final InstantiatorWrapper instantiatorWrapper;
     protected final Class<T> clazz;
+    protected final int chunkSize;
+    protected final String procedureName;
+    protected final ProcedureMetrics metrics;
+    protected final int parallelThreshold;
+    protected final ForkJoinPool decodePool;
+    protected final boolean outputHolder;
+    protected final int fetchSize;
+    private final CallCoalescer coalescer;
+    private boolean cursorOutput;
+    private List<SqlParameter> outputs = Collections.emptyList();
+    private final List<Function<Object, Object>> inputEncoders = new ArrayList<>();
 
     public StoredProcedureWrapper(JdbcTemplate jdbcTemplate, String procName, InstantiatorWrapper
         instantiatorWrapper, Class<T> clazz) {
-        this.internal = new InternalStoredProcedure(jdbcTemplate, procName);
+        this.internal = new InternalStoredProcedure(jdbcTemplate, procName, new StatementReuse(
+            StatementReuse.POOL_DEFAULT, ProcedureMetrics.NONE, procName));
         this.instantiatorWrapper = instantiatorWrapper;
         this.clazz = clazz;
+        this.chunkSize = DEFAULT_CHUNK_SIZE;
+        this.procedureName = procName;
+        this.metrics = ProcedureMetrics.NONE;
+        this.parallelThreshold = 0;
+        this.decodePool = null;
+        this.outputHolder = false;
+        this.fetchSize = DEFAULT_CHUNK_SIZE;
+        this.coalescer = null;
     }
 
     public StoredProcedureWrapper(ProcedureWrapperBuilder<T>.BuilderData builderData) {
-        this.internal = new InternalStoredProcedure(builderData.getJdbcTemplate(), builderData.getProcedureName());
+        this.internal = new InternalStoredProcedure(builderData.getJdbcTemplate(), builderData.getProcedureName(),
+            new StatementReuse(builderData.getStatementCacheSize(), builderData.getMetrics(),
+                builderData.getProcedureName()));
         this.instantiatorWrapper = builderData.getInstantiatorWrapper();
         this.clazz = builderData.getClazz();
+        this.chunkSize = builderData.getChunkSize();
+        this.procedureName = builderData.getProcedureName();
+        this.metrics = builderData.getMetrics();
+        this.parallelThreshold = builderData.getParallelThreshold();
+        this.decodePool = builderData.getDecodePool();
+        this.outputHolder = builderData.isOutputHolder();
+        this.fetchSize = builderData.getFetchSize();
+        this.coalescer = builderData.isCoalesceCalls() ? new CallCoalescer() : null;
     }
 
     /**
@@ -46,42 +95,86 @@ public class StoredProcedureWrapper<T> implements ProcedureCaller<T> {
         registerParameters(sqlParameters);
         sqlParameters.forEach(internal::declareParameter);
         internal.compile();
+        outputs = sqlParameters.stream().filter(SqlOutParameter.class::isInstance).collect(Collectors.toList());
     }
 
     private void registerParameters(List<SqlParameter> sqlParameters) throws SQLException {
         for (SqlParameter v : sqlParameters) {
+            Function<Object, Object> encoder = instantiatorWrapper::valueToDatabase;
             if (v instanceof SqlStructParameter.SqlStructInParameter) {
                 SqlClassHolder structParam = (SqlClassHolder) v;
                 registerReflectiveConversion(structParam.getClazz(), structParam.getTypeName());
+            } else if (v instanceof SqlStructParameter.SqlStructInArrayParameter) {
+                SqlStructParameter.SqlStructInArrayParameter arrayParam =
+                    (SqlStructParameter.SqlStructInArrayParameter) v;
+                ReflectionSqlTypeValue<?> elementType = registerReflectiveConversion(arrayParam.getClazz(),
+                    arrayParam.getStructTypeName());
+                encoder = list -> list == null ? null : elementType.getArrayValue((Collection<?>) list);
+            } else if (v instanceof SqlStructParameter.SqlStructCursorParameter) {
+                instantiatorWrapper.registerCursorOutput(((SqlClassHolder) v).getClazz());
+                cursorOutput |= OUTPUT_PARAM.equals(v.getName());
             } else if (v instanceof SqlStructParameter.SqlStructOutParameter) {
                 SqlClassHolder structParam = (SqlClassHolder) v;
                 registerReflectiveConversionOutput(structParam.getClazz());
             }
+            if (v.isInputValueProvided()) {
+                inputEncoders.add(encoder);
+            }
         }
     }
 
+    /**
+     * Converts input parameters to database values, collections of structs are converted by their parameters.
+     */
+    private Object[] encodeInputs(Object[] input) {
+        Object[] values = new Object[input.length];
+        for (int i = 0; i < input.length; i++) {
+            values[i] = i < inputEncoders.size() ? inputEncoders.get(i).apply(input[i])
+                : instantiatorWrapper.valueToDatabase(input[i]);
+        }
+        return values;
+    }
+
     protected static class InternalStoredProcedure extends StoredProcedure {
-        InternalStoredProcedure(JdbcTemplate jdbcTemplate, String procName) {
+        private final StatementReuse statementReuse;
+
+        InternalStoredProcedure(JdbcTemplate jdbcTemplate, String procName, StatementReuse statementReuse) {
             super(jdbcTemplate, procName);
+            this.statementReuse = statementReuse;
+        }
+
+        List<SqlParameter> getParameters() {
+            return getDeclaredParameters();
+        }
+
+        @Override
+        protected CallableStatementCreator newCallableStatementCreator(Map<String, ?> inParams) {
+            return statementReuse.wrap(super.newCallableStatementCreator(inParams));
+        }
+
+        CallableStatement prepareCall(Connection con) throws SQLException {
+            return statementReuse.prepare(con, getCallString());
         }
     }
 
     /**
-     * Register reflective autoconversion from Java Object to Oracle Object.
+     * Register reflective autoconversion from Java Object to Oracle Object. Preloaded types are mapped on first
+     * call, with connection of the call, so nested types evicted from cache can be read again.
      *
      * @param clazz    Java class
      * @param typeName Oracle class name (normally visible in uppercase)
      */
-    private <R> void registerReflectiveConversion(Class<R> clazz, String typeName) throws SQLException {
-        callWithin(con -> {
-            try {
-                ReflectionSqlTypeValue<R> reflectionSqlTypeValue = new ReflectionSqlTypeValue<>(clazz, con, typeName,
-                    instantiatorWrapper);
-                instantiatorWrapper.registerConversionToDatabase(clazz, reflectionSqlTypeValue::getSqlTypeValue);
-            } catch (SQLException ex) {
-                throw new ProcedureWrapperException("Cannot get object from database", ex);
-            }
-        });
+    private <R> ReflectionSqlTypeValue<R> registerReflectiveConversion(Class<R> clazz, String typeName)
+        throws SQLException {
+        ReflectionSqlTypeValue<R> reflectionSqlTypeValue;
+        if (instantiatorWrapper.getInstantiatorCache().isPreloaded(typeName)) {
+            reflectionSqlTypeValue = new ReflectionSqlTypeValue<>(clazz, null, typeName, instantiatorWrapper);
+        } else {
+            reflectionSqlTypeValue = callWithin(con -> new ReflectionSqlTypeValue<>(clazz, con, typeName,
+                instantiatorWrapper));
+        }
+        instantiatorWrapper.registerInputMapping(clazz, reflectionSqlTypeValue);
+        return reflectionSqlTypeValue;
     }
 
     /**
@@ -101,32 +194,283 @@ public class StoredProcedureWrapper<T> implements ProcedureCaller<T> {
      */
     @Override
     public List<T> mapList(Object... input) {
-        List<Object> mappedObjects = Stream.of(input).map(instantiatorWrapper::valueToDatabase)
-            .collect(Collectors.toList());
-        Map<String, Object> results = internal.execute(mappedObjects.toArray());
-        Object output = results.get(OUTPUT_PARAM);
-        return instantiatorWrapper.getOutputList(clazz, output);
+        return coalesce(true, input, () -> executeList(input));
+    }
+
+    private List<T> executeList(Object[] input) {
+        if (cursorOutput) {
+            try (Stream<T> rows = mapStream(input)) {
+                return rows.collect(Collectors.toList());
+            }
+        }
+        return call(input, results -> decodeList(results.get(OUTPUT_PARAM)));
     }
 
     /**
-     * Map procedure output as Java Object
+     * Map procedure output as Java Object. For wrappers with output holder, all output parameters are mapped into
+     * holder class.
      *
      * @param input input parameters for procedure. Order of arguments should be preserved
      * @return T
      */
     @Override
     public T mapObject(Object... input) {
-        List<Object> mappedObjects = Stream.of(input).map(instantiatorWrapper::valueToDatabase)
-            .collect(Collectors.toList());
-        Map<String, Object> results = internal.execute(mappedObjects.toArray());
-        Object output = results.get(OUTPUT_PARAM);
-        return instantiatorWrapper.getOutputObject(clazz, output);
+        return coalesce(false, input, () -> call(input, this::decodeObject));
     }
 
-    private void callWithin(Consumer<OracleConnection> consumer) throws SQLException {
+    /**
+     * Shares execution between concurrent calls with equal input, when enabled on builder. Shared lists are
+     * unmodifiable. Calls in transaction are always executed, they can depend on uncommitted changes.
+     */
+    @SuppressWarnings("unchecked")
+    private <R> R coalesce(boolean list, Object[] input, Supplier<R> execution) {
+        if (coalescer == null || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return execution.get();
+        }
+        if (list) {
+            return coalescer.call(CallKey.of(true, input), () -> {
+                List<T> result = (List<T>) execution.get();
+                return result == null ? null : (R) Collections.unmodifiableList(result);
+            });
+        }
+        return coalescer.call(CallKey.of(false, input), execution);
+    }
+
+    /**
+     * @return number of calls which shared execution of concurrent call with equal input
+     */
+    public long getCoalescedCalls() {
+        return coalescer == null ? 0 : coalescer.getCoalescedCount();
+    }
+
+    /**
+     * Map procedure output as lazily decoded Stream of Java Object. Output array is decoded in chunks, as stream
+     * is consumed. Rows of cursor output are fetched in batches of fetch size, connection is held until the stream
+     * is exhausted or closed.
+     *
+     * @param input input parameters for procedure. Order of arguments should be preserved
+     * @return Stream of T
+     */
+    @Override
+    public Stream<T> mapStream(Object... input) {
+        if (cursorOutput) {
+            return streamCursor(input);
+        }
+        return call(input, results -> instantiatorWrapper.getOutputStream(clazz, results.get(OUTPUT_PARAM),
+            chunkSize));
+    }
+
+    /**
+     * Decodes output collection, in parallel when enabled on builder, otherwise as configured on InstantiatorWrapper.
+     */
+    private List<T> decodeList(Object output) {
+        if (parallelThreshold > 0) {
+            return instantiatorWrapper.getOutputList(clazz, output, parallelThreshold, decodePool);
+        }
+        return instantiatorWrapper.getOutputList(clazz, output);
+    }
+
+    private T decodeObject(Map<String, Object> results) {
+        if (outputHolder) {
+            return instantiatorWrapper.getOutputHolder(clazz, outputs, results);
+        }
+        return instantiatorWrapper.getOutputObject(clazz, results.get(OUTPUT_PARAM));
+    }
+
+    /**
+     * Executes procedure once and decodes its outputs, every phase is reported to metrics.
+     */
+    private <R> R call(Object[] input, Function<Map<String, Object>, R> decoder) {
+        CallRecorder recorder = new CallRecorder(metrics, procedureName);
+        try {
+            Object[] values = encodeInputs(input);
+            recorder.next(ProcedureMetrics.Phase.EXECUTE);
+            Map<String, Object> results = internal.execute(values);
+            recorder.next(ProcedureMetrics.Phase.DECODE);
+            return recorder.success(decoder.apply(results));
+        } catch (RuntimeException ex) {
+            throw recorder.failure(ex);
+        }
+    }
+
+    /**
+     * Executes procedure outside of StoredProcedure, so cursor stays open after call. Connection is bound to
+     * current transaction if there is one, and released when cursor is closed.
+     */
+    private Stream<T> streamCursor(Object[] input) {
+        CallRecorder recorder = new CallRecorder(metrics, procedureName);
+        JdbcTemplate jdbcTemplate = internal.getJdbcTemplate();
+        DataSource dataSource = jdbcTemplate.getDataSource();
+        List<SqlParameter> parameters = internal.getParameters();
+        Object[] values = null;
+        Connection con = null;
+        CallableStatement cs = null;
+        try {
+            values = encodeInputs(input);
+            recorder.next(ProcedureMetrics.Phase.EXECUTE);
+            con = DataSourceUtils.getConnection(dataSource);
+            cs = internal.prepareCall(con);
+            registerOutParameters(cs, parameters, true);
+            bindInParameters(cs, parameters, values);
+            cs.execute();
+            ResultSet resultSet = (ResultSet) cs.getObject(outputIndex(parameters));
+            resultSet.setFetchSize(fetchSize);
+            recorder.next(ProcedureMetrics.Phase.DECODE);
+            Connection cursorConnection = con;
+            CallableStatement cursorStatement = cs;
+            return recorder.success(instantiatorWrapper.getCursorStream(clazz, resultSet, () -> {
+                JdbcUtils.closeStatement(cursorStatement);
+                DataSourceUtils.releaseConnection(cursorConnection, dataSource);
+            }));
+        } catch (SQLException ex) {
+            JdbcUtils.closeStatement(cs);
+            DataSourceUtils.releaseConnection(con, dataSource);
+            throw recorder.failure(jdbcTemplate.getExceptionTranslator().translate("mapStream",
+                internal.getCallString(), ex));
+        } catch (RuntimeException ex) {
+            JdbcUtils.closeStatement(cs);
+            DataSourceUtils.releaseConnection(con, dataSource);
+            throw recorder.failure(ex);
+        } finally {
+            if (values != null) {
+                StatementCreatorUtils.cleanupParameters(values);
+            }
+        }
+    }
+
+    private static int outputIndex(List<SqlParameter> parameters) {
+        for (int i = 0; i < parameters.size(); i++) {
+            if (OUTPUT_PARAM.equals(parameters.get(i).getName())) {
+                return i + 1;
+            }
+        }
+        throw new ProcedureWrapperException("Procedure has no " + OUTPUT_PARAM + " parameter");
+    }
+
+    /**
+     * Map procedure output as List of Java Object, for every set of input parameters. All calls are executed on
+     * a single connection, with a single prepared statement. Not supported for cursor output.
+     *
+     * @param inputs input parameters for every call. Order of arguments should be preserved
+     * @return List of results, in order of inputs
+     */
+    @Override
+    public List<List<T>> mapListBatch(List<Object[]> inputs) {
+        return executeBatch(inputs, results -> decodeList(results.get(OUTPUT_PARAM)));
+    }
+
+    /**
+     * Map procedure output as Java Object, for every set of input parameters. All calls are executed on a single
+     * connection, with a single prepared statement. Not supported for cursor output.
+     *
+     * @param inputs input parameters for every call. Order of arguments should be preserved
+     * @return List of T, in order of inputs
+     */
+    @Override
+    public List<T> mapObjectBatch(List<Object[]> inputs) {
+        return executeBatch(inputs, this::decodeObject);
+    }
+
+    private <R> List<R> executeBatch(List<Object[]> inputs, Function<Map<String, Object>, R> decoder) {
+        if (cursorOutput) {
+            throw new ProcedureWrapperException("Batch execution is not supported for cursor output of "
+                + procedureName);
+        }
+        if (inputs.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<SqlParameter> parameters = internal.getParameters();
+        return internal.getJdbcTemplate().execute((ConnectionCallback<List<R>>) con -> {
+            try (CallableStatement cs = internal.prepareCall(con)) {
+                registerOutParameters(cs, parameters, !outputHolder);
+                List<R> results = new ArrayList<>(inputs.size());
+                for (Object[] input : inputs) {
+                    CallRecorder recorder = new CallRecorder(metrics, procedureName);
+                    Object[] values = null;
+                    try {
+                        values = encodeInputs(input);
+                        recorder.next(ProcedureMetrics.Phase.EXECUTE);
+                        bindInParameters(cs, parameters, values);
+                        cs.execute();
+                        Map<String, Object> outputValues = readOutParameters(cs, parameters);
+                        recorder.next(ProcedureMetrics.Phase.DECODE);
+                        results.add(recorder.success(decoder.apply(outputValues)));
+                    } catch (SQLException ex) {
+                        throw recorder.failure(ex);
+                    } catch (RuntimeException ex) {
+                        throw recorder.failure(ex);
+                    } finally {
+                        if (values != null) {
+                            StatementCreatorUtils.cleanupParameters(values);
+                        }
+                    }
+                }
+                return results;
+            }
+        });
+    }
+
+    private static void registerOutParameters(CallableStatement cs, List<SqlParameter> parameters,
+        boolean outputRequired) throws SQLException {
+        boolean hasOutput = false;
+        for (int i = 0; i < parameters.size(); i++) {
+            SqlParameter parameter = parameters.get(i);
+            if (parameter instanceof SqlOutParameter) {
+                if (parameter.getTypeName() != null) {
+                    cs.registerOutParameter(i + 1, parameter.getSqlType(), parameter.getTypeName());
+                } else {
+                    cs.registerOutParameter(i + 1, parameter.getSqlType());
+                }
+                if (OUTPUT_PARAM.equals(parameter.getName())) {
+                    hasOutput = true;
+                }
+            }
+        }
+        if (outputRequired && !hasOutput) {
+            throw new ProcedureWrapperException("Procedure has no " + OUTPUT_PARAM + " parameter");
+        }
+    }
+
+    private static Map<String, Object> readOutParameters(CallableStatement cs, List<SqlParameter> parameters)
+        throws SQLException {
+        Map<String, Object> outputValues = new HashMap<>();
+        for (int i = 0; i < parameters.size(); i++) {
+            SqlParameter parameter = parameters.get(i);
+            if (parameter instanceof SqlOutParameter) {
+                outputValues.put(parameter.getName(), cs.getObject(i + 1));
+            }
+        }
+        return outputValues;
+    }
+
+    private static void bindInParameters(CallableStatement cs, List<SqlParameter> parameters, Object[] values)
+        throws SQLException {
+        int valueIndex = 0;
+        for (int i = 0; i < parameters.size(); i++) {
+            SqlParameter parameter = parameters.get(i);
+            if (parameter.isInputValueProvided()) {
+                if (valueIndex >= values.length) {
+                    throw new InvalidDataAccessApiUsageException("Wrong number of parameters: given " + values.length
+                        + " in batch call");
+                }
+                StatementCreatorUtils.setParameterValue(cs, i + 1, parameter, values[valueIndex++]);
+            }
+        }
+        if (valueIndex != values.length) {
+            throw new InvalidDataAccessApiUsageException("Wrong number of parameters: given " + values.length
+                + ", expected " + valueIndex + " in batch call");
+        }
+    }
+
+    private <R> R callWithin(OracleConnectionCallback<R> callback) throws SQLException {
         try (Connection datasourceConnection = internal.getJdbcTemplate().getDataSource().getConnection()) {
             OracleConnection con = datasourceConnection.unwrap(OracleConnection.class);
-            consumer.accept(con);
+            return callback.doInConnection(con);
         }
     }
+
+    @FunctionalInterface
+    private interface OracleConnectionCallback<R> {
+        R doInConnection(OracleConnection con) throws SQLException;
+    }
 }
@@ -0,0 +1,24 @@
+package info.globalbus.oraclewrapper;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Collection;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.support.AbstractSqlTypeValue;
+
+/**
+ * Collection of structs created from Java objects in one pass. Encoding plan of elements is resolved once for the
+ * whole collection, elements are converted directly to STRUCTs.
+ */
+@RequiredArgsConstructor
+class StructArrayValue extends AbstractSqlTypeValue {
+    private final ReflectionSqlTypeValue<?> elementType;
+    private final InstantiatorWrapper instantiatorWrapper;
+    private final Collection<?> elements;
+
+    @Override
+    public Object createTypeValue(Connection con, int sqlType, String typeName) throws SQLException {
+        return elementType.getPlan(con).encodeArray(con,
+            instantiatorWrapper.getInstantiatorCache().getArrayFromCache(typeName, con), elements);
+    }
+}
@@ -0,0 +1,48 @@
+package info.globalbus.oraclewrapper;
+
+import java.util.List;
+
+/**
+ * Mapping of OracleStruct class generated at compile time by the processor module. Properties are read and written
+ * by index, without reflection. Mapper of class a.b.Type is found by name a.b.Type_OracleMapper, classes without
+ * generated mapper are mapped by reflection.
+ */
+public interface StructMapper<T> {
+    String SUFFIX = "_OracleMapper";
+
+    Class<T> getMappedClass();
+
+    /**
+     * @return properties, index in this list is used by get and set
+     */
+    List<StructProperty> getProperties();
+
+    /**
+     * @return true if class has no argument constructor and every property can be set
+     */
+    boolean isDecodable();
+
+    /**
+     * @return true if every property can be read
+     */
+    boolean isEncodable();
+
+    T newInstance();
+
+    Object get(T object, int index);
+
+    /**
+     * Sets property from value returned by Oracle driver. Numbers are converted by generated code, nested structs,
+     * collections and other types by context.
+     */
+    void set(T object, int index, Object value, Context context);
+
+    /**
+     * Conversions of database values, provided by InstantiatorWrapper.
+     */
+    interface Context {
+        <V> V convert(Object value, Class<V> type);
+
+        <V> List<V> convertList(Object value, Class<V> elementType);
+    }
+}
@@ -0,0 +1,57 @@
+package info.globalbus.oraclewrapper;
+
+import java.util.List;
+import java.util.Optional;
+import lombok.experimental.UtilityClass;
+import lombok.extern.slf4j.Slf4j;
+
+import static org.dalesbred.internal.utils.StringUtils.isEqualIgnoringCaseAndUnderscores;
+
+/**
+ * Lookup of generated StructMappers. Every class is looked up once, result is kept with the class. Internal usage.
+ */
+@Slf4j
+@UtilityClass
+class StructMappers {
+    private final ClassValue<Optional<StructMapper<?>>> MAPPERS = new ClassValue<Optional<StructMapper<?>>>() {
+        @Override
+        protected Optional<StructMapper<?>> computeValue(Class<?> type) {
+            return load(type);
+        }
+    };
+
+    @SuppressWarnings("unchecked")
+    <T> Optional<StructMapper<T>> find(Class<T> type) {
+        return MAPPERS.get(type).map(v -> (StructMapper<T>) v);
+    }
+
+    /**
+     * @return index of property matching Oracle attribute name, -1 if there is none
+     */
+    int indexOf(StructMapper<?> mapper, String attributeName) {
+        List<StructProperty> properties = mapper.getProperties();
+        for (int i = 0; i < properties.size(); i++) {
+            if (isEqualIgnoringCaseAndUnderscores(attributeName, properties.get(i).getName())) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private Optional<StructMapper<?>> load(Class<?> type) {
+        if (type.isPrimitive() || type.isArray() || type.getAnnotation(OracleStruct.class) == null) {
+            return Optional.empty();
+        }
+        try {
+            Class<?> mapperClass = Class.forName(type.getName() + StructMapper.SUFFIX, true, type.getClassLoader());
+            StructMapper<?> mapper = (StructMapper<?>) mapperClass.getDeclaredConstructor().newInstance();
+            log.debug("Using generated mapper for {}", type);
+            return Optional.of(mapper);
+        } catch (ClassNotFoundException ex) {
+            return Optional.empty();
+        } catch (ReflectiveOperationException | RuntimeException ex) {
+            log.warn("Cannot create generated mapper for {}, reflection is used", type, ex);
+            return Optional.empty();
+        }
+    }
+}
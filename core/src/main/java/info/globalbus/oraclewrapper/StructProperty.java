@@ -0,0 +1,23 @@
+package info.globalbus.oraclewrapper;
+
+import lombok.AccessLevel;
+import lombok.Value;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * Property of class with generated StructMapper.
+ */
+@Value
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class StructProperty {
+    String name;
+    Class<?> type;
+    /**
+     * Oracle collection type from OracleArray annotation, null for other properties.
+     */
+    String arrayTypeName;
+    /**
+     * Element class of List property, null for other properties.
+     */
+    Class<?> elementType;
+}
@@ -0,0 +1,59 @@
+package info.globalbus.oraclewrapper;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import lombok.AccessLevel;
+import lombok.Value;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * Definition of Oracle object or collection type, as stored in data dictionary.
+ */
+@Value
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class TypeMetadata implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    String typeName;
+    List<Attribute> attributes;
+    Attribute element;
+
+    public static TypeMetadata object(String typeName, List<Attribute> attributes) {
+        return new TypeMetadata(typeName, attributes, null);
+    }
+
+    public static TypeMetadata collection(String typeName, String elementTypeName, boolean userType) {
+        return new TypeMetadata(typeName, Collections.emptyList(), new Attribute(null, elementTypeName, userType));
+    }
+
+    public boolean isCollection() {
+        return element != null;
+    }
+
+    public List<String> getAttributeNames() {
+        return attributes.stream().map(Attribute::getName).collect(Collectors.toList());
+    }
+
+    /**
+     * @return names of user defined types used by attributes or elements of this type
+     */
+    public List<String> getReferencedTypes() {
+        if (isCollection()) {
+            return element.isUserType() ? Collections.singletonList(element.getTypeName()) : Collections.emptyList();
+        }
+        return attributes.stream().filter(Attribute::isUserType).map(Attribute::getTypeName)
+            .collect(Collectors.toList());
+    }
+
+    @Value
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    public static class Attribute implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        String name;
+        String typeName;
+        boolean userType;
+    }
+}
@@ -0,0 +1,18 @@
+package info.globalbus.oraclewrapper;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Source of Oracle type definitions for metadata preload.
+ */
+@FunctionalInterface
+public interface TypeMetadataSource {
+    /**
+     * Loads definitions of given types in bulk. Types not found are omitted from result.
+     *
+     * @param typeNames names of object and collection types
+     * @return definitions by type name
+     */
+    Map<String, TypeMetadata> load(Collection<String> typeNames);
+}
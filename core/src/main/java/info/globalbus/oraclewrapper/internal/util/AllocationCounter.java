@@ -0,0 +1,27 @@
+package info.globalbus.oraclewrapper.internal.util;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import lombok.experimental.UtilityClass;
+
+/**
+ * Reads bytes allocated by current thread, on JVMs supporting com.sun.management.ThreadMXBean.
+ */
+@UtilityClass
+public class AllocationCounter {
+    private final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+    private final boolean SUPPORTED = THREAD_MX_BEAN instanceof com.sun.management.ThreadMXBean
+                                      && ((com.sun.management.ThreadMXBean) THREAD_MX_BEAN)
+                                          .isThreadAllocatedMemorySupported();
+
+    /**
+     * @return bytes allocated by current thread so far, -1 if not supported
+     */
+    public long currentThreadAllocatedBytes() {
+        if (!SUPPORTED) {
+            return -1;
+        }
+        return ((com.sun.management.ThreadMXBean) THREAD_MX_BEAN)
+            .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
@@ -1,10 +1,17 @@
 package info.globalbus.oraclewrapper.internal.util;
 
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.util.Arrays;
 import java.util.Optional;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
 import lombok.AccessLevel;
+import lombok.SneakyThrows;
 import lombok.Value;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
@@ -41,6 +48,77 @@ public class ReflectionUtils {
         return Arrays.stream(cl.getDeclaredFields()).filter(f -> f.getName().equals(fieldName)).findFirst();
     }
 
+    /**
+     * Compiles getter into a Function, so it can be called without reflection. LambdaMetafactory is used when the
+     * declaring class is public and visible from this class loader, otherwise getter is called by MethodHandle.
+     *
+     * @param getter public, no argument method
+     * @return function returning boxed getter value
+     */
+    @SuppressWarnings("unchecked")
+    public static Function<Object, Object> compileGetter(Method getter) {
+        Class<?> declaringClass = getter.getDeclaringClass();
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        try {
+            if (isPublic(declaringClass.getModifiers()) && isVisible(declaringClass)) {
+                MethodHandle handle = lookup.unreflect(getter);
+                return (Function<Object, Object>) LambdaMetafactory.metafactory(lookup, "apply",
+                    MethodType.methodType(Function.class), MethodType.methodType(Object.class, Object.class),
+                    handle, handle.type().wrap()).getTarget().invokeExact();
+            }
+            getter.setAccessible(true);
+            MethodHandle handle = lookup.unreflect(getter).asType(MethodType.methodType(Object.class, Object.class));
+            return object -> invokeGetter(handle, object);
+        } catch (Throwable ex) {
+            throw new IllegalArgumentException("Cannot compile getter " + getter, ex);
+        }
+    }
+
+    /**
+     * Compiles setter into a BiConsumer, in the same way as {@link #compileGetter(Method)}.
+     *
+     * @param setter public, single argument method
+     * @return consumer accepting target object and boxed value
+     */
+    @SuppressWarnings("unchecked")
+    public static BiConsumer<Object, Object> compileSetter(Method setter) {
+        Class<?> declaringClass = setter.getDeclaringClass();
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        try {
+            if (isPublic(declaringClass.getModifiers()) && isVisible(declaringClass)) {
+                MethodHandle handle = lookup.unreflect(setter);
+                return (BiConsumer<Object, Object>) LambdaMetafactory.metafactory(lookup, "accept",
+                    MethodType.methodType(BiConsumer.class),
+                    MethodType.methodType(void.class, Object.class, Object.class),
+                    handle, handle.type().wrap().changeReturnType(void.class)).getTarget().invokeExact();
+            }
+            setter.setAccessible(true);
+            MethodHandle handle = lookup.unreflect(setter).asType(MethodType.methodType(void.class, Object.class,
+                Object.class));
+            return (object, value) -> invokeSetter(handle, object, value);
+        } catch (Throwable ex) {
+            throw new IllegalArgumentException("Cannot compile setter " + setter, ex);
+        }
+    }
+
+    @SneakyThrows
+    private static void invokeSetter(MethodHandle handle, Object object, Object value) {
+        handle.invokeExact(object, value);
+    }
+
+    @SneakyThrows
+    private static Object invokeGetter(MethodHandle handle, Object object) {
+        return handle.invokeExact(object);
+    }
+
+    private static boolean isVisible(Class<?> cl) {
+        try {
+            return Class.forName(cl.getName(), false, ReflectionUtils.class.getClassLoader()) == cl;
+        } catch (ClassNotFoundException ex) {
+            return false;
+        }
+    }
+
     public static <T> PrivateMethod<T> callPrivate(Object callable, String methodName,
                                                    Class<?>... params) {
         try {
@@ -0,0 +1,165 @@
+package info.globalbus.oraclewrapper;
+
+import info.globalbus.oraclewrapper.model.Complex;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.SqlParameter;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+public class BatchExecutionTest {
+    private static final String PROCEDURE = "complex_batch";
+    private static final int FAILING_INPUT = -1;
+
+    @Test
+    public void callsShareStatementAndAreMeasured() {
+        FakeCall fakeCall = new FakeCall();
+        SimpleProcedureMetrics metrics = new SimpleProcedureMetrics();
+        List<Complex> results = wrapper(fakeCall, metrics).mapObjectBatch(Arrays.asList(new Object[] {1},
+            new Object[] {2}, new Object[] {3}));
+        Assert.assertEquals(Arrays.asList(OracleFixtures.complexObject(1), OracleFixtures.complexObject(2),
+            OracleFixtures.complexObject(3)), results);
+        Assert.assertEquals(1, fakeCall.prepares);
+        Assert.assertEquals(Types.STRUCT, (int) fakeCall.outParameters.get(2));
+        Assert.assertEquals(Arrays.asList(1, 2, 3), fakeCall.executed);
+        SimpleProcedureMetrics.ProcedureStats stats = metrics.getStats().get(PROCEDURE);
+        Assert.assertEquals(3, stats.getCalls());
+        Assert.assertEquals(0, stats.getErrors());
+        Assert.assertEquals(1, stats.getPrepares());
+    }
+
+    @Test
+    public void failedCallStopsBatchAndIsRecorded() {
+        FakeCall fakeCall = new FakeCall();
+        SimpleProcedureMetrics metrics = new SimpleProcedureMetrics();
+        try {
+            wrapper(fakeCall, metrics).mapObjectBatch(Arrays.asList(new Object[] {1}, new Object[] {FAILING_INPUT},
+                new Object[] {3}));
+            Assert.fail("Failed call should be thrown");
+        } catch (DataAccessException ex) {
+            Assert.assertTrue(ex.getCause() instanceof SQLException);
+        }
+        Assert.assertEquals(Arrays.asList(1, FAILING_INPUT), fakeCall.executed);
+        SimpleProcedureMetrics.ProcedureStats stats = metrics.getStats().get(PROCEDURE);
+        Assert.assertEquals(2, stats.getCalls());
+        Assert.assertEquals(1, stats.getErrors());
+    }
+
+    @Test
+    public void wrongNumberOfInputsIsRejected() {
+        FakeCall fakeCall = new FakeCall();
+        SimpleProcedureMetrics metrics = new SimpleProcedureMetrics();
+        try {
+            wrapper(fakeCall, metrics).mapObjectBatch(Arrays.asList(new Object[] {1, 2}));
+            Assert.fail("Wrong number of inputs should be rejected");
+        } catch (InvalidDataAccessApiUsageException ex) {
+            Assert.assertTrue(fakeCall.executed.isEmpty());
+        }
+        Assert.assertEquals(1, metrics.getStats().get(PROCEDURE).getErrors());
+    }
+
+    @Test
+    public void emptyBatchDoesNotPrepare() {
+        FakeCall fakeCall = new FakeCall();
+        Assert.assertTrue(wrapper(fakeCall, ProcedureMetrics.NONE).mapListBatch(new ArrayList<>()).isEmpty());
+        Assert.assertEquals(0, fakeCall.prepares);
+    }
+
+    @Test
+    public void cursorOutputIsRejected() {
+        FakeCall fakeCall = new FakeCall();
+        ProcedureCaller<Complex> wrapper = wrapper(fakeCall, ProcedureMetrics.NONE,
+            SqlStructParameter.createOutCursor(ProcedureCaller.OUTPUT_PARAM, Complex.class));
+        try {
+            wrapper.mapListBatch(Arrays.asList(new Object[] {1}, new Object[] {2}));
+            Assert.fail("Cursor output should be rejected");
+        } catch (ProcedureWrapperException ex) {
+            Assert.assertEquals(0, fakeCall.prepares);
+        }
+    }
+
+    private static ProcedureCaller<Complex> wrapper(FakeCall fakeCall, ProcedureMetrics metrics) {
+        return wrapper(fakeCall, metrics, SqlStructParameter.createOut(ProcedureCaller.OUTPUT_PARAM, Complex.class));
+    }
+
+    private static ProcedureCaller<Complex> wrapper(FakeCall fakeCall, ProcedureMetrics metrics,
+        SqlParameter output) {
+        return new ProcedureWrapperBuilder<Complex>()
+            .jdbcTemplate(new JdbcTemplate(new SingleConnectionDataSource(fakeCall.connection(), true)))
+            .instantiatorWrapper(OracleFixtures.instantiatorWrapper())
+            .procedureName(PROCEDURE)
+            .clazz(Complex.class)
+            .metrics(metrics)
+            .parameter(new SqlParameter(ProcedureCaller.INPUT_PARAM, Types.NUMERIC))
+            .parameter(output)
+            .build().get();
+    }
+
+    /**
+     * Connection with statement returning Complex fixture for given number, calls with FAILING_INPUT fail.
+     */
+    private static class FakeCall {
+        private final Map<Integer, Integer> outParameters = new HashMap<>();
+        private final List<Integer> executed = new ArrayList<>();
+        private final Map<Integer, Object> bound = new HashMap<>();
+        private int prepares;
+
+        Connection connection() {
+            return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {Connection.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "prepareCall":
+                            prepares++;
+                            return statement();
+                        case "isClosed":
+                        case "isWrapperFor":
+                            return false;
+                        case "close":
+                            return null;
+                        default:
+                            throw new SQLException("Not supported: " + method.getName());
+                    }
+                });
+        }
+
+        private CallableStatement statement() {
+            return (CallableStatement) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] {CallableStatement.class}, (proxy, method, args) -> {
+                    String name = method.getName();
+                    if ("registerOutParameter".equals(name)) {
+                        outParameters.put((Integer) args[0], (Integer) args[1]);
+                        return null;
+                    } else if (name.startsWith("set") && args.length >= 2 && args[0] instanceof Integer) {
+                        bound.put((Integer) args[0], args[1]);
+                        return null;
+                    } else if ("execute".equals(name)) {
+                        int input = ((Number) bound.get(1)).intValue();
+                        executed.add(input);
+                        if (input == FAILING_INPUT) {
+                            throw new SQLException("Call failed");
+                        }
+                        return false;
+                    } else if ("getObject".equals(name)) {
+                        return OracleFixtures.complexStruct(((Number) bound.get(1)).intValue());
+                    } else if ("isWrapperFor".equals(name)) {
+                        return false;
+                    } else if ("close".equals(name)) {
+                        return null;
+                    }
+                    throw new SQLException("Not supported: " + name);
+                });
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package info.globalbus.oraclewrapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CallCoalescerTest {
+    private static final int THREADS = 8;
+
+    @Test
+    public void concurrentCallsShareExecution() throws Exception {
+        CallCoalescer coalescer = new CallCoalescer();
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            Future<String> leader = executor.submit(() -> coalescer.call(CallKey.of(false, new Object[] {1}), () -> {
+                executions.incrementAndGet();
+                started.countDown();
+                await(release);
+                return "result";
+            }));
+            started.await();
+            List<Future<String>> followers = new ArrayList<>();
+            for (int i = 1; i < THREADS; i++) {
+                followers.add(executor.submit(() -> coalescer.call(CallKey.of(false, new Object[] {1}), () -> {
+                    executions.incrementAndGet();
+                    return "other";
+                })));
+            }
+            while (coalescer.getCoalescedCount() < THREADS - 1) {
+                Thread.yield();
+            }
+            release.countDown();
+            Assert.assertEquals("result", leader.get(5, TimeUnit.SECONDS));
+            for (Future<String> follower : followers) {
+                Assert.assertEquals("result", follower.get(5, TimeUnit.SECONDS));
+            }
+            Assert.assertEquals(1, executions.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void completedCallIsNotShared() {
+        CallCoalescer coalescer = new CallCoalescer();
+        Assert.assertEquals("first", coalescer.call(CallKey.of(true, new Object[] {1}), () -> "first"));
+        Assert.assertEquals("second", coalescer.call(CallKey.of(true, new Object[] {1}), () -> "second"));
+        Assert.assertEquals(0, coalescer.getCoalescedCount());
+    }
+
+    @Test
+    public void failureIsThrownToWaitingCallers() throws Exception {
+        CallCoalescer coalescer = new CallCoalescer();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            executor.submit(() -> coalescer.call(CallKey.of(false, new Object[] {1}), () -> {
+                started.countDown();
+                await(release);
+                throw new ProcedureWrapperException("failed");
+            }));
+            started.await();
+            Thread waiting = new Thread(() -> {
+                while (coalescer.getCoalescedCount() == 0) {
+                    Thread.yield();
+                }
+                release.countDown();
+            });
+            waiting.start();
+            try {
+                coalescer.call(CallKey.of(false, new Object[] {1}), () -> "other");
+                Assert.fail("Exception expected");
+            } catch (ProcedureWrapperException ex) {
+                Assert.assertEquals("failed", ex.getMessage());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
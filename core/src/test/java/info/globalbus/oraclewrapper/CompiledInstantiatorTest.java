@@ -0,0 +1,55 @@
+package info.globalbus.oraclewrapper;
+
+import info.globalbus.oraclewrapper.model.Complex;
+import java.math.BigDecimal;
+import java.util.Optional;
+import org.dalesbred.internal.instantiation.NamedTypeList;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CompiledInstantiatorTest {
+    private static final NamedTypeList DOUBLES = NamedTypeList.builder(2).add("RPART", Double.class)
+        .add("IPART", Double.class).build();
+
+    @Test
+    public void constructorIsCompiled() throws Exception {
+        Optional<CompiledInstantiator<Complex>> compiled = CompiledInstantiator.compile(
+            Complex.class.getConstructor(Double.class, Double.class), DOUBLES, (s, t) -> Optional.empty());
+        Assert.assertTrue(compiled.isPresent());
+        Assert.assertEquals(new Complex(1.0, 1.5), compiled.get().instantiate(new Object[] {1.0, 1.5}));
+    }
+
+    @Test
+    public void remainingAttributesAreSet() throws Exception {
+        Optional<CompiledInstantiator<Complex>> compiled = CompiledInstantiator.compile(
+            Complex.class.getConstructor(), DOUBLES, (s, t) -> Optional.empty());
+        Assert.assertTrue(compiled.isPresent());
+        Assert.assertEquals(new Complex(2.0, 2.5), compiled.get().instantiate(new Object[] {2.0, 2.5}));
+    }
+
+    @Test
+    public void missingConversionIsNotCompiled() throws Exception {
+        NamedTypeList strings = NamedTypeList.builder(2).add("RPART", String.class).add("IPART", String.class)
+            .build();
+        Assert.assertFalse(CompiledInstantiator.compile(Complex.class.getConstructor(Double.class, Double.class),
+            strings, (s, t) -> Optional.empty()).isPresent());
+    }
+
+    @Test
+    public void dalesbredConversionIsFound() {
+        InstantiatorCache cache = new InstantiatorWrapper().getInstantiatorCache();
+        Assert.assertEquals(1.5, cache.convert(new BigDecimal("1.5"), Double.class));
+    }
+
+    @Test
+    public void structIsDecodedWithCompiledInstantiator() throws Exception {
+        InstantiatorWrapper instantiatorWrapper = OracleFixtures.instantiatorWrapper();
+        instantiatorWrapper.registerReflectiveConversionOutput(Complex.class);
+        Assert.assertEquals(OracleFixtures.complexObject(3),
+            instantiatorWrapper.getOutputObject(Complex.class, OracleFixtures.complexStruct(3)));
+        InstantiatorCache.InstantiatorEntry<Complex> entry = instantiatorWrapper.getInstantiatorCache()
+            .get(Complex.class);
+        Assert.assertNotNull(entry.getCompiled());
+        Assert.assertNull(entry.getGenerated());
+    }
+}
@@ -0,0 +1,109 @@
+package info.globalbus.oraclewrapper;
+
+import info.globalbus.oraclewrapper.model.Complex;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import oracle.jdbc.OracleStruct;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CursorStreamTest {
+    @Test
+    public void rowsAreDecodedAndCursorIsClosed() throws Exception {
+        InstantiatorWrapper instantiatorWrapper = OracleFixtures.instantiatorWrapper();
+        instantiatorWrapper.registerCursorOutput(Complex.class);
+        AtomicInteger closed = new AtomicInteger();
+        Stream<Complex> rows = instantiatorWrapper.getCursorStream(Complex.class, cursor(3, closed),
+            closed::incrementAndGet);
+        List<Complex> list = rows.collect(Collectors.toList());
+        Assert.assertEquals(3, list.size());
+        Assert.assertEquals(OracleFixtures.complexObject(2), list.get(2));
+        Assert.assertEquals(2, closed.get());
+        rows.close();
+        Assert.assertEquals(2, closed.get());
+    }
+
+    @Test
+    public void cursorIsClosedWithStream() throws Exception {
+        InstantiatorWrapper instantiatorWrapper = OracleFixtures.instantiatorWrapper();
+        instantiatorWrapper.registerCursorOutput(Complex.class);
+        AtomicInteger closed = new AtomicInteger();
+        try (Stream<Complex> rows = instantiatorWrapper.getCursorStream(Complex.class, cursor(1000, closed),
+            closed::incrementAndGet)) {
+            Assert.assertEquals(OracleFixtures.complexObject(0), rows.findFirst().orElse(null));
+        }
+        Assert.assertEquals(2, closed.get());
+    }
+
+    @Test
+    public void rowWithNullStructIsPassed() throws Exception {
+        InstantiatorWrapper instantiatorWrapper = OracleFixtures.instantiatorWrapper();
+        instantiatorWrapper.registerCursorOutput(Complex.class);
+        ResultSet cursor = cursor(structColumn(), 3, new AtomicInteger(),
+            i -> i == 1 ? null : OracleFixtures.complexStruct(i));
+        try (Stream<Complex> rows = instantiatorWrapper.getCursorStream(Complex.class, cursor, () -> { })) {
+            Assert.assertEquals(Arrays.asList(OracleFixtures.complexObject(0), null, OracleFixtures.complexObject(2)),
+                rows.collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    public void columnsOfStructClassAreMatchedByName() throws Exception {
+        InstantiatorWrapper instantiatorWrapper = OracleFixtures.instantiatorWrapper();
+        instantiatorWrapper.registerCursorOutput(Complex.class);
+        Assert.assertEquals(OracleFixtures.complexObject(1),
+            instantiatorWrapper.getOutputObject(Complex.class, OracleFixtures.complexStruct(1)));
+        ResultSet cursor = cursor(OracleFixtures.metaData(new OracleFixtures.Attribute("IPART", Types.NUMERIC,
+            BigDecimal.class.getName(), null)), 1, new AtomicInteger(), i -> BigDecimal.valueOf(2.5));
+        try (Stream<Complex> rows = instantiatorWrapper.getCursorStream(Complex.class, cursor, () -> { })) {
+            Assert.assertEquals(Collections.singletonList(new Complex(null, 2.5)),
+                rows.collect(Collectors.toList()));
+        }
+    }
+
+    private static ResultSetMetaData structColumn() {
+        return OracleFixtures.metaData(new OracleFixtures.Attribute("VALUE", Types.STRUCT,
+            OracleStruct.class.getName(), null));
+    }
+
+    /**
+     * Cursor with single STRUCT column, closing of result set increments counter.
+     */
+    private static ResultSet cursor(int size, AtomicInteger closed) {
+        return cursor(structColumn(), size, closed, OracleFixtures::complexStruct);
+    }
+
+    /**
+     * Cursor with single column, closing of result set increments counter.
+     */
+    private static ResultSet cursor(ResultSetMetaData metaData, int size, AtomicInteger closed,
+        IntFunction<Object> values) {
+        AtomicInteger row = new AtomicInteger(-1);
+        return (ResultSet) Proxy.newProxyInstance(CursorStreamTest.class.getClassLoader(),
+            new Class[] {ResultSet.class}, (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "getMetaData":
+                        return metaData;
+                    case "next":
+                        return row.incrementAndGet() < size;
+                    case "getObject":
+                        return values.apply(row.get());
+                    case "close":
+                        closed.incrementAndGet();
+                        return null;
+                    default:
+                        throw new UnsupportedOperationException(method.getName());
+                }
+            });
+    }
+}
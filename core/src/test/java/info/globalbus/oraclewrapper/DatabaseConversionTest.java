@@ -0,0 +1,43 @@
+package info.globalbus.oraclewrapper;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.function.Function;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class DatabaseConversionTest {
+    @Test
+    public void jdbcTypesArePassedWithoutConversion() {
+        InstantiatorWrapper instantiatorWrapper = new InstantiatorWrapper();
+        String text = "text";
+        BigDecimal number = BigDecimal.TEN;
+        Assert.assertSame(text, instantiatorWrapper.valueToDatabase(text));
+        Assert.assertSame(number, instantiatorWrapper.valueToDatabase(number));
+        Assert.assertNull(instantiatorWrapper.valueToDatabase(null));
+        Assert.assertTrue(instantiatorWrapper.isDatabaseType(double.class));
+        Assert.assertFalse(instantiatorWrapper.isDatabaseType(double[].class));
+    }
+
+    @Test
+    public void registeredConversionReplacesFastPath() {
+        InstantiatorWrapper instantiatorWrapper = new InstantiatorWrapper();
+        instantiatorWrapper.registerConversionToDatabase(String.class, String::toUpperCase);
+        Assert.assertFalse(instantiatorWrapper.isDatabaseType(String.class));
+        Assert.assertEquals("TEXT", instantiatorWrapper.valueToDatabase("text"));
+    }
+
+    @Test
+    public void conversionOfDeclaredTypeIsResolvedOnce() {
+        InstantiatorWrapper instantiatorWrapper = new InstantiatorWrapper();
+        instantiatorWrapper.registerConversionToDatabase(LocalDate.class, Date::valueOf);
+        Function<Object, Object> conversion = instantiatorWrapper.getConversionToDatabase(LocalDate.class);
+        Assert.assertEquals(Date.valueOf("2017-08-01"), conversion.apply(LocalDate.of(2017, 8, 1)));
+        Assert.assertNull(conversion.apply(null));
+        instantiatorWrapper.registerConversionToDatabase(LocalDate.class, v -> v.toString());
+        Assert.assertEquals(Date.valueOf("2017-08-01"), conversion.apply(LocalDate.of(2017, 8, 1)));
+        String text = "text";
+        Assert.assertSame(text, instantiatorWrapper.getConversionToDatabase(String.class).apply(text));
+    }
+}
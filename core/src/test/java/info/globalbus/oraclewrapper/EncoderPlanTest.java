@@ -0,0 +1,83 @@
+package info.globalbus.oraclewrapper;
+
+import info.globalbus.oraclewrapper.model.Complex;
+import info.globalbus.oraclewrapper.model.ComplexList;
+import info.globalbus.oraclewrapper.model.Response;
+import java.sql.Types;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import oracle.sql.ARRAY;
+import oracle.sql.STRUCT;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class EncoderPlanTest {
+    @Test
+    public void nestedStructIsEncodedWithoutLookups() throws Exception {
+        InstantiatorWrapper instantiatorWrapper = OracleFixtures.instantiatorWrapper();
+        ReflectionSqlTypeValue<Response> typeValue = new ReflectionSqlTypeValue<>(Response.class,
+            OracleFixtures.connection, OracleFixtures.RESPONSE, instantiatorWrapper);
+        instantiatorWrapper.registerInputMapping(Response.class, typeValue);
+        Map<String, CacheStats> before = instantiatorWrapper.getCacheStats();
+        MappedSqlTypeValue value = (MappedSqlTypeValue) typeValue.getSqlTypeValue(OracleFixtures.responseObject());
+        STRUCT struct = (STRUCT) value.createTypeValue(OracleFixtures.connection, Types.STRUCT,
+            OracleFixtures.RESPONSE);
+        assertNoLookups(before, instantiatorWrapper.getCacheStats());
+        Assert.assertTrue(struct.getAttributes(Collections.emptyMap())[0] instanceof STRUCT);
+        instantiatorWrapper.registerReflectiveConversionOutput(Response.class);
+        Assert.assertEquals(OracleFixtures.responseObject(), instantiatorWrapper.getOutputObject(Response.class,
+            struct));
+    }
+
+    @Test
+    public void nestedCollectionIsEncodedWithoutLookups() throws Exception {
+        InstantiatorWrapper instantiatorWrapper = OracleFixtures.instantiatorWrapper();
+        ReflectionSqlTypeValue<ComplexList> typeValue = new ReflectionSqlTypeValue<>(ComplexList.class,
+            OracleFixtures.connection, OracleFixtures.COMPLEX_LIST, instantiatorWrapper);
+        Map<String, CacheStats> before = instantiatorWrapper.getCacheStats();
+        MappedSqlTypeValue value = (MappedSqlTypeValue) typeValue.getSqlTypeValue(
+            OracleFixtures.complexListObject(5));
+        STRUCT struct = (STRUCT) value.createTypeValue(OracleFixtures.connection, Types.STRUCT,
+            OracleFixtures.COMPLEX_LIST);
+        assertNoLookups(before, instantiatorWrapper.getCacheStats());
+        Assert.assertTrue(struct.getAttributes(Collections.emptyMap())[0] instanceof ARRAY);
+        instantiatorWrapper.registerReflectiveConversionOutput(ComplexList.class);
+        Assert.assertEquals(OracleFixtures.complexListObject(5), instantiatorWrapper.getOutputObject(
+            ComplexList.class, struct));
+    }
+
+    @Test
+    public void planIsRebuiltAfterDescriptorEviction() throws Exception {
+        InstantiatorWrapper instantiatorWrapper = new InstantiatorWrapper(1, null);
+        InstantiatorCache cache = instantiatorWrapper.getInstantiatorCache();
+        cache.registerStructDescriptor(OracleFixtures.COMPLEX, OracleFixtures.complex);
+        ReflectionSqlTypeValue<Complex> typeValue = new ReflectionSqlTypeValue<>(Complex.class,
+            OracleFixtures.connection, OracleFixtures.COMPLEX, instantiatorWrapper);
+        EncoderPlan plan = typeValue.getPlan(OracleFixtures.connection);
+        Assert.assertSame(plan, typeValue.getPlan(OracleFixtures.connection));
+        cache.registerStructDescriptor(OracleFixtures.MESSAGE, OracleFixtures.message);
+        cache.registerStructDescriptor(OracleFixtures.COMPLEX, OracleFixtures.complex);
+        Assert.assertNotSame(plan, typeValue.getPlan(OracleFixtures.connection));
+    }
+
+    @Test
+    public void planIsRebuiltAfterTimeToLive() throws Exception {
+        InstantiatorWrapper instantiatorWrapper = new InstantiatorWrapper(0, Duration.ofMillis(1));
+        InstantiatorCache cache = instantiatorWrapper.getInstantiatorCache();
+        cache.registerStructDescriptor(OracleFixtures.COMPLEX, OracleFixtures.complex);
+        ReflectionSqlTypeValue<Complex> typeValue = new ReflectionSqlTypeValue<>(Complex.class,
+            OracleFixtures.connection, OracleFixtures.COMPLEX, instantiatorWrapper);
+        EncoderPlan plan = typeValue.getPlan(OracleFixtures.connection);
+        Thread.sleep(5);
+        cache.registerStructDescriptor(OracleFixtures.COMPLEX, OracleFixtures.complex);
+        Assert.assertNotSame(plan, typeValue.getPlan(OracleFixtures.connection));
+    }
+
+    private static void assertNoLookups(Map<String, CacheStats> before, Map<String, CacheStats> after) {
+        for (String cache : new String[] {"structDescriptors", "arrayDescriptors"}) {
+            Assert.assertEquals(before.get(cache).getHitCount(), after.get(cache).getHitCount());
+            Assert.assertEquals(before.get(cache).getMissCount(), after.get(cache).getMissCount());
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package info.globalbus.oraclewrapper;
+
+import java.io.File;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import javax.annotation.processing.Processor;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import oracle.sql.ARRAY;
+import oracle.sql.STRUCT;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Mapping through StructMappers generated by annotation processor, sample classes are compiled with the processor
+ * from processor module.
+ */
+@SuppressWarnings("deprecation")
+public class GeneratedMapperTest {
+    private static final String PROCESSOR = "info.globalbus.oraclewrapper.processor.OracleStructProcessor";
+    private static final String POINT = String.join("\n",
+        "package sample;",
+        "import info.globalbus.oraclewrapper.OracleStruct;",
+        "@OracleStruct(\"COMPLEX\")",
+        "public class Point {",
+        "    private Double rPart;",
+        "    private Double iPart;",
+        "    public Double getRPart() { return rPart; }",
+        "    public void setRPart(Double rPart) { this.rPart = rPart; }",
+        "    public Double getIPart() { return iPart; }",
+        "    public void setIPart(Double iPart) { this.iPart = iPart; }",
+        "}");
+    private static final String POINT_LIST = String.join("\n",
+        "package sample;",
+        "import info.globalbus.oraclewrapper.OracleArray;",
+        "import info.globalbus.oraclewrapper.OracleStruct;",
+        "import java.util.List;",
+        "@OracleStruct(\"ComplexList\")",
+        "public class PointList {",
+        "    @OracleArray(\"ARRAY_OF_COMPLEX\")",
+        "    private List<Point> items;",
+        "    public List<Point> getItems() { return items; }",
+        "    public void setItems(List<Point> items) { this.items = items; }",
+        "}");
+    private static final String NOTE = String.join("\n",
+        "package sample;",
+        "import info.globalbus.oraclewrapper.OracleStruct;",
+        "@OracleStruct(\"Message\")",
+        "public class Note {",
+        "    private String code;",
+        "    private String message;",
+        "    private Point unrelated;",
+        "    public String getCode() { return code; }",
+        "    public void setCode(String code) { this.code = code; }",
+        "    public String getMessage() { return message; }",
+        "    public void setMessage(String message) { this.message = message; }",
+        "    public Point getUnrelated() { return unrelated; }",
+        "    public void setUnrelated(Point unrelated) { this.unrelated = unrelated; }",
+        "}");
+    private static final String REAL_PART = String.join("\n",
+        "package sample;",
+        "import info.globalbus.oraclewrapper.OracleStruct;",
+        "@OracleStruct(\"COMPLEX\")",
+        "public class RealPart {",
+        "    private Double rPart;",
+        "    public Double getRPart() { return rPart; }",
+        "    public void setRPart(Double rPart) { this.rPart = rPart; }",
+        "}");
+
+    @Test
+    public void structWithCollectionIsDecodedAndEncoded() throws Exception {
+        try (URLClassLoader loader = compile(Arrays.asList(POINT, POINT_LIST))) {
+            Class<?> pointList = loader.loadClass("sample.PointList");
+            Assert.assertTrue(StructMappers.find(pointList).isPresent());
+            InstantiatorWrapper instantiatorWrapper = OracleFixtures.instantiatorWrapper();
+            instantiatorWrapper.registerReflectiveConversionOutput(pointList);
+            STRUCT struct = new STRUCT(OracleFixtures.complexList, OracleFixtures.connection,
+                new Object[] {OracleFixtures.complexArray(3)});
+            Object decoded = instantiatorWrapper.getOutputObject(pointList, struct);
+            Assert.assertNotNull(instantiatorWrapper.getInstantiatorCache().get(pointList).generated);
+            assertPoints(decoded, 3);
+
+            ReflectionSqlTypeValue<?> typeValue = new ReflectionSqlTypeValue<>(pointList, OracleFixtures.connection,
+                OracleFixtures.COMPLEX_LIST, instantiatorWrapper);
+            MappedSqlTypeValue value = (MappedSqlTypeValue) typeValue.getSqlTypeValue(decoded);
+            STRUCT encoded = (STRUCT) value.createTypeValue(OracleFixtures.connection, Types.STRUCT,
+                OracleFixtures.COMPLEX_LIST);
+            Assert.assertTrue(encoded.getAttributes(Collections.emptyMap())[0] instanceof ARRAY);
+            assertPoints(instantiatorWrapper.getOutputObject(pointList, encoded), 3);
+        }
+    }
+
+    @Test
+    public void nestedStructIsDecoded() throws Exception {
+        try (URLClassLoader loader = compile(Arrays.asList(POINT, NOTE))) {
+            Class<?> note = loader.loadClass("sample.Note");
+            InstantiatorWrapper instantiatorWrapper = OracleFixtures.instantiatorWrapper();
+            instantiatorWrapper.registerReflectiveConversionOutput(note);
+            STRUCT struct = new STRUCT(OracleFixtures.message, OracleFixtures.connection,
+                new Object[] {"T", "B", OracleFixtures.complexStruct(2)});
+            Object decoded = instantiatorWrapper.getOutputObject(note, struct);
+            Assert.assertNotNull(instantiatorWrapper.getInstantiatorCache().get(note).generated);
+            Assert.assertEquals("T", get(decoded, "getCode"));
+            Assert.assertEquals("B", get(decoded, "getMessage"));
+            assertPoint(get(decoded, "getUnrelated"), 2);
+        }
+    }
+
+    @Test
+    public void attributeWithoutPropertyIsNotSkipped() throws Exception {
+        try (URLClassLoader loader = compile(Collections.singletonList(REAL_PART))) {
+            Class<?> realPart = loader.loadClass("sample.RealPart");
+            Assert.assertTrue(StructMappers.find(realPart).isPresent());
+            InstantiatorWrapper instantiatorWrapper = OracleFixtures.instantiatorWrapper();
+            instantiatorWrapper.registerReflectiveConversionOutput(realPart);
+            try {
+                instantiatorWrapper.getOutputObject(realPart, OracleFixtures.complexStruct(1));
+                Assert.fail("Attribute without property should not be skipped");
+            } catch (RuntimeException ex) {
+                Assert.assertNull(instantiatorWrapper.getInstantiatorCache().get(realPart));
+            }
+        }
+    }
+
+    private static void assertPoints(Object pointList, int size) throws Exception {
+        List<?> items = (List<?>) get(pointList, "getItems");
+        Assert.assertEquals(size, items.size());
+        for (int i = 0; i < size; i++) {
+            assertPoint(items.get(i), i);
+        }
+    }
+
+    private static void assertPoint(Object point, int i) throws Exception {
+        Assert.assertEquals((double) i, get(point, "getRPart"));
+        Assert.assertEquals(i + 0.5, get(point, "getIPart"));
+    }
+
+    private static Object get(Object object, String getter) throws Exception {
+        return object.getClass().getMethod(getter).invoke(object);
+    }
+
+    private static URLClassLoader compile(List<String> sources) throws Exception {
+        Path root = Files.createTempDirectory("mapper");
+        Path sourceDir = Files.createDirectories(root.resolve("src/sample"));
+        Path outputDir = Files.createDirectories(root.resolve("classes"));
+        File[] files = new File[sources.size()];
+        for (int i = 0; i < sources.size(); i++) {
+            String source = sources.get(i);
+            String name = source.substring(source.indexOf("class ") + 6, source.indexOf(" {"));
+            files[i] = Files.write(sourceDir.resolve(name + ".java"), source.getBytes(StandardCharsets.UTF_8))
+                .toFile();
+        }
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, null)) {
+            Iterable<? extends JavaFileObject> units = fileManager.getJavaFileObjects(files);
+            List<String> options = Arrays.asList("-d", outputDir.toString(),
+                "-classpath", System.getProperty("java.class.path"));
+            JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, null, options, null, units);
+            Processor processor = (Processor) Class.forName(PROCESSOR).getDeclaredConstructor().newInstance();
+            task.setProcessors(Collections.singletonList(processor));
+            Assert.assertTrue(task.call());
+        }
+        return new URLClassLoader(new URL[] {outputDir.toUri().toURL()}, GeneratedMapperTest.class.getClassLoader());
+    }
+}
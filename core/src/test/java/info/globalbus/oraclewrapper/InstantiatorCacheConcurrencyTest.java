@@ -0,0 +1,90 @@
+package info.globalbus.oraclewrapper;
+
+import info.globalbus.oraclewrapper.model.Complex;
+import info.globalbus.oraclewrapper.model.Response;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class InstantiatorCacheConcurrencyTest {
+    private static final int TYPES = 64;
+    private static final int THREADS = 16;
+
+    @Test
+    public void unrelatedTypeIsNotBlocked() throws Exception {
+        InstantiatorWrapper instantiatorWrapper = OracleFixtures.instantiatorWrapper();
+        InstantiatorCache cache = instantiatorWrapper.getInstantiatorCache();
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<Object> blocked = pool.submit(() -> cache.inConnection(OracleFixtures.response,
+                OracleFixtures.connection, () -> {
+                    entered.countDown();
+                    release.await();
+                    return null;
+                }));
+            Assert.assertTrue(entered.await(10, TimeUnit.SECONDS));
+            Future<ReflectionSqlTypeValue<Complex>> other = pool.submit(() -> new ReflectionSqlTypeValue<>(
+                Complex.class, OracleFixtures.connection, OracleFixtures.COMPLEX, instantiatorWrapper));
+            Assert.assertNotNull(other.get(10, TimeUnit.SECONDS));
+            release.countDown();
+            blocked.get(10, TimeUnit.SECONDS);
+        } finally {
+            release.countDown();
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void manyTypesRegisteredConcurrently() throws Exception {
+        InstantiatorWrapper instantiatorWrapper = OracleFixtures.instantiatorWrapper();
+        InstantiatorCache cache = instantiatorWrapper.getInstantiatorCache();
+        for (int i = 0; i < TYPES; i++) {
+            cache.registerStructDescriptor(typeName(i), OracleFixtures.structType(typeName(i),
+                OracleFixtures.numberAttribute("RPART"), OracleFixtures.numberAttribute("IPART")));
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<ReflectionSqlTypeValue<?>>> complexTypes = new ArrayList<>();
+            List<Future<ReflectionSqlTypeValue<?>>> responseTypes = new ArrayList<>();
+            for (int i = 0; i < TYPES; i++) {
+                String typeName = typeName(i);
+                complexTypes.add(pool.submit(() -> {
+                    start.await();
+                    return new ReflectionSqlTypeValue<>(Complex.class, OracleFixtures.connection, typeName,
+                        instantiatorWrapper);
+                }));
+                responseTypes.add(pool.submit(() -> {
+                    start.await();
+                    return new ReflectionSqlTypeValue<>(Response.class, OracleFixtures.connection,
+                        OracleFixtures.RESPONSE, instantiatorWrapper);
+                }));
+            }
+            start.countDown();
+            for (int i = 0; i < TYPES; i++) {
+                MappedSqlTypeValue complex = (MappedSqlTypeValue) complexTypes.get(i).get(10, TimeUnit.SECONDS)
+                    .getSqlTypeValue(OracleFixtures.complexObject(i));
+                Assert.assertNotNull(complex.createTypeValue(OracleFixtures.connection, Types.STRUCT, typeName(i)));
+                MappedSqlTypeValue response = (MappedSqlTypeValue) responseTypes.get(i).get(10, TimeUnit.SECONDS)
+                    .getSqlTypeValue(OracleFixtures.responseObject());
+                Assert.assertNotNull(response.createTypeValue(OracleFixtures.connection, Types.STRUCT,
+                    OracleFixtures.RESPONSE));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static String typeName(int i) {
+        return OracleFixtures.COMPLEX + "_" + i;
+    }
+}
@@ -0,0 +1,39 @@
+package info.globalbus.oraclewrapper;
+
+import info.globalbus.oraclewrapper.model.Complex;
+import info.globalbus.oraclewrapper.model.Response;
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import oracle.sql.STRUCT;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class InstantiatorCacheInvalidationTest {
+    @Test
+    public void usingAndNestedTypesAreInvalidated() throws Exception {
+        InstantiatorWrapper instantiatorWrapper = OracleFixtures.instantiatorWrapper();
+        instantiatorWrapper.preload(OracleFixtures.jdbcTemplate(), names -> OracleFixtures.dictionary(),
+            Collections.singletonList(OracleFixtures.RESPONSE));
+        new ReflectionSqlTypeValue<>(Response.class, null, OracleFixtures.RESPONSE, instantiatorWrapper);
+        Assert.assertEquals(new HashSet<>(Arrays.asList(OracleFixtures.RESPONSE, OracleFixtures.MESSAGE,
+            OracleFixtures.COMPLEX)), instantiatorWrapper.invalidate(OracleFixtures.MESSAGE));
+        Assert.assertFalse(instantiatorWrapper.getInstantiatorCache().isPreloaded(OracleFixtures.RESPONSE));
+        Assert.assertNotNull(instantiatorWrapper.getInstantiatorCache().getCachedStruct(OracleFixtures.COMPLEX_LIST));
+    }
+
+    @Test
+    public void mappingIsRebuiltAfterInvalidation() throws Exception {
+        InstantiatorWrapper instantiatorWrapper = OracleFixtures.instantiatorWrapper();
+        ReflectionSqlTypeValue<Complex> typeValue = new ReflectionSqlTypeValue<>(Complex.class,
+            OracleFixtures.connection, OracleFixtures.COMPLEX, instantiatorWrapper);
+        instantiatorWrapper.invalidate(OracleFixtures.COMPLEX);
+        instantiatorWrapper.getInstantiatorCache().registerStructDescriptor(OracleFixtures.COMPLEX,
+            OracleFixtures.structType(OracleFixtures.COMPLEX, OracleFixtures.numberAttribute("RPART")));
+        MappedSqlTypeValue value = (MappedSqlTypeValue) typeValue.getSqlTypeValue(OracleFixtures.complexObject(1));
+        STRUCT struct = (STRUCT) value.createTypeValue(OracleFixtures.connection, Types.STRUCT,
+            OracleFixtures.COMPLEX);
+        Assert.assertEquals(1, struct.getAttributes(Collections.emptyMap()).length);
+    }
+}
@@ -0,0 +1,121 @@
+package info.globalbus.oraclewrapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ManagedCacheTest {
+    @Test
+    public void leastRecentlyUsedEntryIsEvicted() {
+        ManagedCache<String, String> cache = new ManagedCache<>(2, ManagedCache.UNBOUNDED);
+        cache.put("a", "A");
+        cache.put("b", "B");
+        Assert.assertEquals("A", cache.get("a"));
+        cache.put("c", "C");
+        Assert.assertTrue(cache.containsKey("a"));
+        Assert.assertFalse(cache.containsKey("b"));
+        Assert.assertTrue(cache.containsKey("c"));
+        Assert.assertEquals(1, cache.stats().getEvictionCount());
+    }
+
+    @Test
+    public void valuesFollowReplacedAndEvictedEntries() {
+        ManagedCache<String, String> cache = new ManagedCache<>(2, ManagedCache.UNBOUNDED);
+        cache.put("a", "A");
+        cache.put("b", "B");
+        cache.put("a", "X");
+        Assert.assertFalse(cache.containsValue("A"));
+        Assert.assertTrue(cache.containsValue("X"));
+        cache.put("c", "X");
+        Assert.assertFalse(cache.containsValue("B"));
+        cache.remove("a");
+        Assert.assertTrue(cache.containsValue("X"));
+        cache.removeIf("X"::equals);
+        Assert.assertFalse(cache.containsValue("X"));
+        Assert.assertEquals(0, cache.stats().getSize());
+    }
+
+    @Test
+    public void expiredEntryIsLoadedAgain() throws Exception {
+        ManagedCache<String, String> cache = new ManagedCache<>(ManagedCache.UNBOUNDED, 1);
+        Assert.assertEquals("A", cache.get("a", String::toUpperCase));
+        Thread.sleep(1);
+        Assert.assertEquals("A", cache.get("a", String::toUpperCase));
+        CacheStats stats = cache.stats();
+        Assert.assertEquals(2, stats.getLoadCount());
+        Assert.assertEquals(2, stats.getMissCount());
+        Assert.assertEquals(1, stats.getEvictionCount());
+    }
+
+    @Test
+    public void hitsAreCounted() throws Exception {
+        ManagedCache<String, String> cache = new ManagedCache<>();
+        cache.get("a", String::toUpperCase);
+        cache.get("a", String::toUpperCase);
+        cache.get("a", String::toUpperCase);
+        CacheStats stats = cache.stats();
+        Assert.assertEquals(1, stats.getSize());
+        Assert.assertEquals(2, stats.getHitCount());
+        Assert.assertEquals(1, stats.getLoadCount());
+    }
+
+    @Test
+    public void concurrentMissesShareOneLoad() throws Exception {
+        ManagedCache<String, String> cache = new ManagedCache<>();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> first = executor.submit(() -> cache.get("a", k -> {
+                loads.incrementAndGet();
+                loading.countDown();
+                await(release);
+                return k.toUpperCase();
+            }));
+            Assert.assertTrue(loading.await(10, TimeUnit.SECONDS));
+            Future<String> second = executor.submit(() -> cache.get("a", k -> {
+                loads.incrementAndGet();
+                return k.toUpperCase();
+            }));
+            release.countDown();
+            Assert.assertEquals("A", first.get(10, TimeUnit.SECONDS));
+            Assert.assertEquals("A", second.get(10, TimeUnit.SECONDS));
+            Assert.assertEquals(1, loads.get());
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void valuesAreIndexedByIdentity() {
+        ManagedCache<String, List<String>> cache = new ManagedCache<>();
+        List<String> value = new ArrayList<>();
+        cache.put("a", value);
+        cache.put("b", null);
+        Assert.assertTrue(cache.containsValue(value));
+        Assert.assertFalse(cache.containsValue(new ArrayList<>()));
+        Assert.assertFalse(cache.containsValue(null));
+        value.add("changed");
+        Assert.assertTrue(cache.containsValue(value));
+        cache.remove("a");
+        cache.remove("b");
+        Assert.assertFalse(cache.containsValue(value));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
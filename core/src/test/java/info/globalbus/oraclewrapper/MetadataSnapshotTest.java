@@ -0,0 +1,181 @@
+package info.globalbus.oraclewrapper;
+
+import info.globalbus.oraclewrapper.model.Response;
+import java.io.InvalidClassException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import oracle.jdbc.oracore.OracleNamedType;
+import oracle.jdbc.oracore.OracleType;
+import oracle.jdbc.oracore.OracleTypeADT;
+import oracle.jdbc.oracore.OracleTypeCOLLECTION;
+import oracle.jdbc.oracore.OracleTypeNUMBER;
+import oracle.sql.ArrayDescriptor;
+import oracle.sql.SQLName;
+import oracle.sql.StructDescriptor;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+public class MetadataSnapshotTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void snapshotRestoresPreloadedTypes() throws Exception {
+        Path file = exportedSnapshot();
+        InstantiatorWrapper instantiatorWrapper = new InstantiatorWrapper();
+        Set<String> rebuilt = instantiatorWrapper.loadSnapshot(file, OracleFixtures.jdbcTemplate(),
+            names -> OracleFixtures.dictionary()).get(10, TimeUnit.SECONDS);
+        Assert.assertTrue(rebuilt.isEmpty());
+        Assert.assertTrue(instantiatorWrapper.getInstantiatorCache().isPreloaded(OracleFixtures.RESPONSE));
+        ReflectionSqlTypeValue<Response> typeValue = new ReflectionSqlTypeValue<>(Response.class, null,
+            OracleFixtures.RESPONSE, instantiatorWrapper);
+        MappedSqlTypeValue value = (MappedSqlTypeValue) typeValue.getSqlTypeValue(OracleFixtures.responseObject());
+        Assert.assertNotNull(value.createTypeValue(OracleFixtures.connection, Types.STRUCT,
+            OracleFixtures.RESPONSE));
+    }
+
+    @Test
+    public void changedTypeIsRebuilt() throws Exception {
+        Path file = exportedSnapshot();
+        Map<String, TypeMetadata> dictionary = OracleFixtures.dictionary();
+        dictionary.remove(OracleFixtures.COMPLEX);
+        Set<String> preloaded = new HashSet<>();
+        InstantiatorWrapper instantiatorWrapper = new FixturePreloadWrapper(preloaded);
+        Set<String> rebuilt = instantiatorWrapper.loadSnapshot(file, OracleFixtures.jdbcTemplate(),
+            names -> dictionary).get(10, TimeUnit.SECONDS);
+        Assert.assertEquals(Collections.singleton(OracleFixtures.COMPLEX), rebuilt);
+        Assert.assertEquals(new HashSet<>(Arrays.asList(OracleFixtures.MESSAGE, OracleFixtures.RESPONSE)), preloaded);
+        InstantiatorCache cache = instantiatorWrapper.getInstantiatorCache();
+        Assert.assertFalse(cache.isPreloaded(OracleFixtures.COMPLEX));
+        Assert.assertTrue(cache.isPreloaded(OracleFixtures.MESSAGE));
+        Assert.assertTrue(cache.isPreloaded(OracleFixtures.RESPONSE));
+
+        InstantiatorWrapper restarted = new InstantiatorWrapper();
+        Assert.assertTrue(restarted.loadSnapshot(file, OracleFixtures.jdbcTemplate(),
+            names -> dictionary).get(10, TimeUnit.SECONDS).isEmpty());
+        Assert.assertTrue(restarted.getInstantiatorCache().isPreloaded(OracleFixtures.MESSAGE));
+        Assert.assertTrue(restarted.getInstantiatorCache().isPreloaded(OracleFixtures.RESPONSE));
+    }
+
+    @Test
+    public void unreadableSnapshotIsSkipped() throws Exception {
+        Path file = folder.newFile().toPath();
+        Files.write(file, new byte[] {1, 2, 3});
+        InstantiatorWrapper instantiatorWrapper = new InstantiatorWrapper();
+        Assert.assertTrue(instantiatorWrapper.loadSnapshot(file, OracleFixtures.jdbcTemplate(),
+            names -> OracleFixtures.dictionary()).get(10, TimeUnit.SECONDS).isEmpty());
+        Assert.assertFalse(instantiatorWrapper.getInstantiatorCache().isPreloaded(OracleFixtures.RESPONSE));
+    }
+
+    @Test
+    public void driverDescriptorsAreRestored() throws Exception {
+        SQLName structName = new SQLName(OracleFixtures.SCHEMA, "POINT", OracleFixtures.connection);
+        OracleTypeADT structType = newInstance(OracleTypeADT.class);
+        setField(OracleNamedType.class, "sqlName", structType, structName);
+        setField(OracleTypeADT.class, "toid", structType, new byte[16]);
+        setField(OracleTypeADT.class, "attrNames", structType, new String[] {"X", "Y"});
+        setField(OracleTypeADT.class, "attrTypes", structType, new OracleType[] {
+            newInstance(OracleTypeNUMBER.class), newInstance(OracleTypeNUMBER.class)});
+        SQLName arrayName = new SQLName(OracleFixtures.SCHEMA, "POINT_TABLE", OracleFixtures.connection);
+        OracleTypeCOLLECTION arrayType = new OracleTypeCOLLECTION(structType, 0, OracleFixtures.connection);
+        setField(OracleNamedType.class, "sqlName", arrayType, arrayName);
+        setField(OracleTypeADT.class, "toid", arrayType, new byte[16]);
+        setField(OracleTypeCOLLECTION.class, "elementType", arrayType, structType);
+        setField(OracleTypeCOLLECTION.class, "userCode", arrayType, OracleTypeCOLLECTION.TYPE_VARRAY);
+        Path file = folder.getRoot().toPath().resolve("driver.snapshot");
+        new MetadataSnapshot(Arrays.asList(
+            TypeMetadata.object("POINT", Arrays.asList(new TypeMetadata.Attribute("X", "NUMBER", false),
+                new TypeMetadata.Attribute("Y", "NUMBER", false))),
+            TypeMetadata.collection("POINT_TABLE", "POINT", true)),
+            Collections.singletonMap("POINT", new StructDescriptor(structName, structType, OracleFixtures.connection)),
+            Collections.singletonMap("POINT_TABLE", new ArrayDescriptor(arrayName, arrayType,
+                OracleFixtures.connection))).write(file);
+        MetadataSnapshot snapshot = MetadataSnapshot.read(file).orElseThrow(AssertionError::new);
+        Assert.assertEquals(Arrays.asList("X", "Y"), snapshot.getTypes().get(0).getAttributeNames());
+        StructDescriptor struct = snapshot.getStructs().get("POINT");
+        Assert.assertEquals(structName.getName(), struct.getName());
+        Assert.assertEquals(2, struct.getOracleTypeADT().getAttrTypes().length);
+        ArrayDescriptor array = snapshot.getArrays().get("POINT_TABLE");
+        Assert.assertEquals(arrayName.getName(), array.getName());
+        Assert.assertEquals(ArrayDescriptor.TYPE_VARRAY, array.getArrayType());
+    }
+
+    @Test
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public void snapshotWithOtherClassesIsRejected() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("other.snapshot");
+        new MetadataSnapshot((List) Collections.singletonList(new Date()), Collections.emptyMap(),
+            Collections.emptyMap()).write(file);
+        try {
+            MetadataSnapshot.read(file);
+            Assert.fail("Snapshot with other classes should be rejected");
+        } catch (InvalidClassException ex) {
+            Assert.assertEquals(Date.class.getName(), ex.classname);
+        }
+        InstantiatorWrapper instantiatorWrapper = new InstantiatorWrapper();
+        Assert.assertTrue(instantiatorWrapper.loadSnapshot(file, OracleFixtures.jdbcTemplate(),
+            names -> OracleFixtures.dictionary()).get(10, TimeUnit.SECONDS).isEmpty());
+    }
+
+    private static <T> T newInstance(Class<T> type) throws ReflectiveOperationException {
+        Constructor<T> constructor = type.getDeclaredConstructor();
+        constructor.setAccessible(true);
+        return constructor.newInstance();
+    }
+
+    private static void setField(Class<?> owner, String name, Object target, Object value)
+        throws ReflectiveOperationException {
+        Field field = owner.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+
+    /**
+     * Preloads fixture descriptors instead of creating them on connection, records names of preloaded types.
+     */
+    private static class FixturePreloadWrapper extends InstantiatorWrapper {
+        private final Set<String> preloaded;
+
+        FixturePreloadWrapper(Set<String> preloaded) {
+            this.preloaded = preloaded;
+        }
+
+        @Override
+        public void preload(JdbcTemplate jdbcTemplate, TypeMetadataSource source, Collection<String> typeNames) {
+            preloaded.addAll(typeNames);
+            Map<String, StructDescriptor> structs = new HashMap<>();
+            structs.put(OracleFixtures.COMPLEX, OracleFixtures.complex);
+            structs.put(OracleFixtures.MESSAGE, OracleFixtures.message);
+            structs.put(OracleFixtures.RESPONSE, OracleFixtures.response);
+            for (TypeMetadata type : source.load(typeNames).values()) {
+                getInstantiatorCache().registerStructDescriptor(type.getTypeName(), structs.get(type.getTypeName()));
+                getInstantiatorCache().setTypeMetadata(type);
+            }
+        }
+    }
+
+    private Path exportedSnapshot() {
+        Path file = folder.getRoot().toPath().resolve("types.snapshot");
+        InstantiatorWrapper instantiatorWrapper = OracleFixtures.instantiatorWrapper();
+        instantiatorWrapper.preload(OracleFixtures.jdbcTemplate(), names -> OracleFixtures.dictionary(),
+            Collections.singletonList(OracleFixtures.RESPONSE));
+        instantiatorWrapper.exportSnapshot(file);
+        return file;
+    }
+}
@@ -0,0 +1,78 @@
+package info.globalbus.oraclewrapper;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class MicroBatchingCallerTest {
+    private static final Duration LONG_DELAY = Duration.ofMinutes(1);
+
+    @Test
+    public void fullBatchIsExecutedAtOnce() throws Exception {
+        BatchProcedure procedure = new BatchProcedure(v -> v.stream().map(i -> "r" + i).collect(Collectors.toList()));
+        MicroBatchingCaller<String> caller = new MicroBatchingCaller<>(() -> procedure, Runnable::run, 3, LONG_DELAY);
+        CompletableFuture<String> first = caller.mapObjectAsync(1);
+        CompletableFuture<String> second = caller.mapObjectAsync(2);
+        Assert.assertFalse(first.isDone());
+        Assert.assertEquals("r3", caller.mapObject(3));
+        Assert.assertEquals("r1", first.get());
+        Assert.assertEquals("r2", second.get());
+        Assert.assertEquals(Collections.singletonList(3), procedure.batchSizes);
+    }
+
+    @Test
+    public void partialBatchIsExecutedAfterDelay() throws Exception {
+        BatchProcedure procedure = new BatchProcedure(v -> v.stream().map(i -> "r" + i).collect(Collectors.toList()));
+        MicroBatchingCaller<String> caller = new MicroBatchingCaller<>(() -> procedure, Runnable::run, 10,
+            Duration.ofMillis(5));
+        CompletableFuture<String> first = caller.mapObjectAsync(1);
+        CompletableFuture<String> second = caller.mapObjectAsync(2);
+        Assert.assertEquals("r1", first.get(5, TimeUnit.SECONDS));
+        Assert.assertEquals("r2", second.get(5, TimeUnit.SECONDS));
+        Assert.assertEquals(Collections.singletonList(2), procedure.batchSizes);
+    }
+
+    @Test
+    public void wrongNumberOfResultsFailsEveryCall() {
+        BatchProcedure procedure = new BatchProcedure(v -> Collections.singletonList("only"));
+        MicroBatchingCaller<String> caller = new MicroBatchingCaller<>(() -> procedure, Runnable::run, 2, LONG_DELAY);
+        CompletableFuture<String> first = caller.mapObjectAsync(1);
+        try {
+            caller.mapObject(2);
+            Assert.fail("Exception expected");
+        } catch (ProcedureWrapperException ex) {
+            Assert.assertTrue(first.isCompletedExceptionally());
+        }
+    }
+
+    /**
+     * Batch procedure taking list of inputs as its only argument.
+     */
+    private static class BatchProcedure implements ProcedureCaller<String> {
+        private final Function<List<?>, List<String>> body;
+        private final List<Integer> batchSizes = new ArrayList<>();
+
+        BatchProcedure(Function<List<?>, List<String>> body) {
+            this.body = body;
+        }
+
+        @Override
+        public List<String> mapList(Object... input) {
+            List<?> inputs = (List<?>) input[0];
+            batchSizes.add(inputs.size());
+            return body.apply(inputs);
+        }
+
+        @Override
+        public String mapObject(Object... input) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,381 @@
+package info.globalbus.oraclewrapper;
+
+import info.globalbus.oraclewrapper.model.Complex;
+import info.globalbus.oraclewrapper.model.ComplexList;
+import info.globalbus.oraclewrapper.model.Message;
+import info.globalbus.oraclewrapper.model.Response;
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import lombok.AccessLevel;
+import lombok.Value;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.UtilityClass;
+import oracle.jdbc.internal.OracleConnection;
+import oracle.jdbc.oracore.OracleType;
+import oracle.jdbc.oracore.OracleTypeADT;
+import oracle.jdbc.oracore.OracleTypeCHAR;
+import oracle.jdbc.oracore.OracleTypeCOLLECTION;
+import oracle.jdbc.oracore.OracleTypeNUMBER;
+import oracle.sql.ARRAY;
+import oracle.sql.ArrayDescriptor;
+import oracle.sql.SQLName;
+import oracle.sql.STRUCT;
+import oracle.sql.StructDescriptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+/**
+ * In-memory Oracle type fixtures for tests and benchmarks. Descriptors are bound to a proxy connection, in the same way
+ * as InstantiatorCache dummy connection, so STRUCT and ARRAY values can be pickled and read without a database.
+ * Descriptors are serializable like driver ones.
+ */
+@UtilityClass
+@SuppressWarnings("deprecation")
+class OracleFixtures {
+    static final String COMPLEX = "COMPLEX";
+    static final String SCHEMA = "FIXTURE";
+    static final String MESSAGE = "Message";
+    static final String RESPONSE = "Response";
+    static final String COMPLEX_LIST = "ComplexList";
+    static final String ARRAY_OF_COMPLEX = "ARRAY_OF_COMPLEX";
+    static final String ARRAY_OF_RESPONSE = "ARRAY_OF_RESPONSE";
+    static final String NUMBER_TABLE = "NUMBER_TABLE";
+
+    final OracleConnection connection = (OracleConnection) Proxy.newProxyInstance(
+        OracleFixtures.class.getClassLoader(), new Class[] {OracleConnection.class}, (proxy, method, args) -> {
+            Class<?> returnType = method.getReturnType();
+            if ("isDescriptorSharable".equals(method.getName())) {
+                return true;
+            } else if ("physicalConnectionWithin".equals(method.getName()) || "unwrap".equals(method.getName())) {
+                return proxy;
+            } else if ("getTypeMap".equals(method.getName())) {
+                return new HashMap<>();
+            } else if (returnType == boolean.class) {
+                return false;
+            } else if (returnType == int.class) {
+                return 0;
+            } else if (returnType == short.class) {
+                return (short) 0;
+            } else if (returnType == long.class) {
+                return 0L;
+            } else if (returnType.isPrimitive() && returnType != void.class) {
+                throw new UnsupportedOperationException("This proxy cannot be called");
+            }
+            return null;
+        });
+
+    final StructDescriptor complex = structType(COMPLEX,
+        numberAttribute("RPART"),
+        numberAttribute("IPART"));
+    final StructDescriptor message = structType(MESSAGE,
+        stringAttribute("code"),
+        stringAttribute("message"),
+        structAttribute("unrelated", complex));
+    final StructDescriptor response = structType(RESPONSE,
+        structAttribute("message", message));
+    final ArrayDescriptor arrayOfComplex = arrayType(ARRAY_OF_COMPLEX, complex);
+    final ArrayDescriptor arrayOfResponse = arrayType(ARRAY_OF_RESPONSE, response);
+    final StructDescriptor complexList = structType(COMPLEX_LIST,
+        arrayAttribute("items", arrayOfComplex));
+    final ArrayDescriptor numberTable = arrayType(NUMBER_TABLE, new FixtureNumberType());
+
+    /**
+     * Creates InstantiatorWrapper with all fixture descriptors already present in its cache, so input conversions
+     * can be registered without fetching metadata.
+     */
+    InstantiatorWrapper instantiatorWrapper() {
+        InstantiatorWrapper instantiatorWrapper = new InstantiatorWrapper();
+        InstantiatorCache cache = instantiatorWrapper.getInstantiatorCache();
+        cache.registerStructDescriptor(COMPLEX, complex);
+        cache.registerStructDescriptor(MESSAGE, message);
+        cache.registerStructDescriptor(RESPONSE, response);
+        cache.registerStructDescriptor(COMPLEX_LIST, complexList);
+        cache.registerArrayDescriptor(ARRAY_OF_COMPLEX, arrayOfComplex);
+        cache.registerArrayDescriptor(ARRAY_OF_RESPONSE, arrayOfResponse);
+        cache.registerArrayDescriptor(NUMBER_TABLE, numberTable);
+        return instantiatorWrapper;
+    }
+
+    JdbcTemplate jdbcTemplate() {
+        return new JdbcTemplate(new SingleConnectionDataSource(connection, true));
+    }
+
+    /**
+     * @return data dictionary definitions of fixture object types
+     */
+    Map<String, TypeMetadata> dictionary() {
+        Map<String, TypeMetadata> dictionary = new HashMap<>();
+        dictionary.put(COMPLEX, TypeMetadata.object(COMPLEX, Arrays.asList(
+            new TypeMetadata.Attribute("RPART", "NUMBER", false),
+            new TypeMetadata.Attribute("IPART", "NUMBER", false))));
+        dictionary.put(MESSAGE, TypeMetadata.object(MESSAGE, Arrays.asList(
+            new TypeMetadata.Attribute("code", "VARCHAR2", false),
+            new TypeMetadata.Attribute("message", "VARCHAR2", false),
+            new TypeMetadata.Attribute("unrelated", COMPLEX, true))));
+        dictionary.put(RESPONSE, TypeMetadata.object(RESPONSE, Collections.singletonList(
+            new TypeMetadata.Attribute("message", MESSAGE, true))));
+        return dictionary;
+    }
+
+    Complex complexObject(int i) {
+        return new Complex((double) i, i + 0.5);
+    }
+
+    Response responseObject() {
+        return new Response(new Message("T", "B", null));
+    }
+
+    ComplexList complexListObject(int size) {
+        List<Complex> items = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            items.add(complexObject(i));
+        }
+        return new ComplexList(items);
+    }
+
+    STRUCT complexStruct(int i) {
+        return newStruct(complex, BigDecimal.valueOf(i), BigDecimal.valueOf(i + 0.5));
+    }
+
+    STRUCT responseStruct() {
+        return newStruct(response, newStruct(message, "T", "B", null));
+    }
+
+    ARRAY complexArray(int size) {
+        Object[] elements = new Object[size];
+        for (int i = 0; i < size; i++) {
+            elements[i] = complexStruct(i);
+        }
+        try {
+            return new ARRAY(arrayOfComplex, connection, elements);
+        } catch (SQLException ex) {
+            throw new IllegalStateException("Cannot create fixture array", ex);
+        }
+    }
+
+    private STRUCT newStruct(StructDescriptor descriptor, Object... attributes) {
+        try {
+            return new STRUCT(descriptor, connection, attributes);
+        } catch (SQLException ex) {
+            throw new IllegalStateException("Cannot create fixture struct", ex);
+        }
+    }
+
+    Attribute numberAttribute(String name) {
+        return new Attribute(name, Types.NUMERIC, BigDecimal.class.getName(), new FixtureNumberType());
+    }
+
+    private Attribute stringAttribute(String name) {
+        return new Attribute(name, Types.VARCHAR, String.class.getName(), new FixtureCharType());
+    }
+
+    private Attribute structAttribute(String name, StructDescriptor descriptor) {
+        try {
+            return new Attribute(name, Types.STRUCT, oracle.jdbc.OracleStruct.class.getName(),
+                descriptor.getOracleTypeADT());
+        } catch (SQLException ex) {
+            throw new IllegalStateException("Cannot read fixture descriptor", ex);
+        }
+    }
+
+    private Attribute arrayAttribute(String name, ArrayDescriptor descriptor) {
+        return new Attribute(name, Types.ARRAY, oracle.jdbc.OracleArray.class.getName(),
+            descriptor.getOracleTypeCOLLECTION());
+    }
+
+    StructDescriptor structType(String typeName, Attribute... attributes) {
+        try {
+            FixtureTypeADT type = new FixtureTypeADT(typeName);
+            OracleType[] types = new OracleType[attributes.length];
+            for (int i = 0; i < attributes.length; i++) {
+                types[i] = attributes[i].getType();
+            }
+            setField(OracleTypeADT.class, "attrTypes", type, types);
+            return new FixtureStructDescriptor(typeName, type, attributes);
+        } catch (SQLException ex) {
+            throw new IllegalStateException("Cannot create fixture descriptor " + typeName, ex);
+        }
+    }
+
+    private ArrayDescriptor arrayType(String typeName, StructDescriptor elementType) {
+        try {
+            return arrayType(typeName, elementType.getOracleTypeADT());
+        } catch (SQLException ex) {
+            throw new IllegalStateException("Cannot read fixture descriptor", ex);
+        }
+    }
+
+    private ArrayDescriptor arrayType(String typeName, OracleType elementType) {
+        try {
+            FixtureTypeCollection type = new FixtureTypeCollection(typeName);
+            setField(OracleTypeCOLLECTION.class, "elementType", type, elementType);
+            return new ArrayDescriptor(new FixtureSqlName(typeName), type, connection);
+        } catch (SQLException ex) {
+            throw new IllegalStateException("Cannot create fixture descriptor " + typeName, ex);
+        }
+    }
+
+    private void setField(Class<?> owner, String name, Object target, Object value) {
+        try {
+            Field field = owner.getDeclaredField(name);
+            field.setAccessible(true);
+            field.set(target, value);
+        } catch (ReflectiveOperationException ex) {
+            throw new IllegalStateException("Cannot set " + name + " on " + owner.getName(), ex);
+        }
+    }
+
+    ResultSetMetaData metaData(Attribute... attributes) {
+        return (ResultSetMetaData) Proxy.newProxyInstance(OracleFixtures.class.getClassLoader(),
+            new Class[] {ResultSetMetaData.class}, (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "getColumnCount":
+                        return attributes.length;
+                    case "getColumnLabel":
+                    case "getColumnName":
+                        return attributes[(Integer) args[0] - 1].getName();
+                    case "getColumnClassName":
+                        return attributes[(Integer) args[0] - 1].getClassName();
+                    case "getColumnType":
+                        return attributes[(Integer) args[0] - 1].getSqlType();
+                    default:
+                        throw new UnsupportedOperationException("This proxy cannot be called");
+                }
+            });
+    }
+
+    @Value
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    static class Attribute {
+        String name;
+        int sqlType;
+        String className;
+        OracleType type;
+    }
+
+    private static class FixtureSqlName extends SQLName {
+        private final String name;
+
+        FixtureSqlName(String name) {
+            this.name = name;
+            setField(SQLName.class, "name", this, name);
+            setField(SQLName.class, "simple", this, name);
+            setField(SQLName.class, "schema", this, SCHEMA);
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public String getSimpleName() {
+            return name;
+        }
+    }
+
+    /**
+     * Keeps attribute metadata in plain arrays, so descriptor can be written to metadata snapshot.
+     */
+    private static class FixtureStructDescriptor extends StructDescriptor {
+        private final String[] names;
+        private final int[] sqlTypes;
+        private final String[] classNames;
+        private transient ResultSetMetaData metaData;
+
+        FixtureStructDescriptor(String typeName, OracleTypeADT type, Attribute... attributes) throws SQLException {
+            super(new FixtureSqlName(typeName), type, connection);
+            names = Arrays.stream(attributes).map(Attribute::getName).toArray(String[]::new);
+            sqlTypes = Arrays.stream(attributes).mapToInt(Attribute::getSqlType).toArray();
+            classNames = Arrays.stream(attributes).map(Attribute::getClassName).toArray(String[]::new);
+        }
+
+        @Override
+        public ResultSetMetaData getMetaData() throws SQLException {
+            if (metaData == null) {
+                OracleType[] types = getOracleTypeADT().getAttrTypes();
+                metaData = metaData(IntStream.range(0, names.length)
+                    .mapToObj(i -> new Attribute(names[i], sqlTypes[i], classNames[i], types[i]))
+                    .toArray(Attribute[]::new));
+            }
+            return metaData;
+        }
+
+        @Override
+        public boolean isInstantiable() {
+            return true;
+        }
+    }
+
+    private static class FixtureTypeADT extends OracleTypeADT {
+        private final String name;
+
+        FixtureTypeADT(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String getFullName() {
+            return SCHEMA + "." + name;
+        }
+
+        @Override
+        public byte[] getTOID() {
+            return new byte[16];
+        }
+
+        @Override
+        public void setConnection(OracleConnection connection) {
+            //descriptors are never bound to a real connection
+        }
+
+        @Override
+        public int getTypeCode() {
+            return Types.STRUCT;
+        }
+    }
+
+    private static class FixtureTypeCollection extends OracleTypeCOLLECTION {
+        private final String name;
+
+        FixtureTypeCollection(String name) throws SQLException {
+            super(new FixtureTypeADT(name), TYPE_VARRAY, connection);
+            this.name = name;
+        }
+
+        @Override
+        public String getFullName() {
+            return SCHEMA + "." + name;
+        }
+
+        @Override
+        public byte[] getTOID() {
+            return new byte[16];
+        }
+
+        @Override
+        public void setConnection(OracleConnection connection) {
+            //descriptors are never bound to a real connection
+        }
+    }
+
+    private static class FixtureNumberType extends OracleTypeNUMBER {
+        FixtureNumberType() {
+            super(Types.NUMERIC);
+        }
+    }
+
+    private static class FixtureCharType extends OracleTypeCHAR {
+    }
+}
@@ -0,0 +1,121 @@
+package info.globalbus.oraclewrapper;
+
+import info.globalbus.oraclewrapper.model.Complex;
+import info.globalbus.oraclewrapper.model.Message;
+import info.globalbus.oraclewrapper.model.Response;
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import oracle.sql.ARRAY;
+import oracle.sql.Datum;
+import oracle.sql.STRUCT;
+import oracle.sql.StructDescriptor;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class OutputDecodeTest {
+    @Test
+    public void listIsDecodedInOrder() throws Exception {
+        InstantiatorWrapper instantiatorWrapper = OracleFixtures.instantiatorWrapper();
+        instantiatorWrapper.registerReflectiveConversionOutput(Complex.class);
+        List<Complex> list = instantiatorWrapper.getOutputList(Complex.class, OracleFixtures.complexArray(5));
+        Assert.assertEquals(5, list.size());
+        for (int i = 0; i < list.size(); i++) {
+            Assert.assertEquals(OracleFixtures.complexObject(i), list.get(i));
+        }
+    }
+
+    @Test
+    public void nullElementsAreSkipped() throws Exception {
+        InstantiatorWrapper instantiatorWrapper = OracleFixtures.instantiatorWrapper();
+        instantiatorWrapper.registerReflectiveConversionOutput(Complex.class);
+        ARRAY array = new ARRAY(OracleFixtures.arrayOfComplex, OracleFixtures.connection,
+            new Object[] {null, OracleFixtures.complexStruct(1), null});
+        List<Complex> list = instantiatorWrapper.getOutputList(Complex.class, array);
+        Assert.assertEquals(1, list.size());
+        Assert.assertEquals(OracleFixtures.complexObject(1), list.get(0));
+    }
+
+    @Test
+    public void parallelDecodeKeepsOrder() throws Exception {
+        InstantiatorWrapper instantiatorWrapper = OracleFixtures.instantiatorWrapper();
+        instantiatorWrapper.registerReflectiveConversionOutput(Complex.class);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            List<Complex> list = instantiatorWrapper.getOutputList(Complex.class, OracleFixtures.complexArray(2000),
+                100, pool);
+            Assert.assertEquals(2000, list.size());
+            for (int i = 0; i < list.size(); i++) {
+                Assert.assertEquals(OracleFixtures.complexObject(i), list.get(i));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void parallelDecodeReadsStructsOnCallingThread() throws Exception {
+        InstantiatorWrapper instantiatorWrapper = OracleFixtures.instantiatorWrapper();
+        instantiatorWrapper.registerReflectiveConversionOutput(Complex.class);
+        instantiatorWrapper.registerReflectiveConversionOutput(Response.class);
+        Set<Thread> threads = ConcurrentHashMap.newKeySet();
+        Object[] complexes = new Object[300];
+        Object[] responses = new Object[300];
+        for (int i = 0; i < complexes.length; i++) {
+            complexes[i] = new RecordingStruct(OracleFixtures.complex, threads, BigDecimal.valueOf(i),
+                BigDecimal.valueOf(i + 0.5));
+            responses[i] = new RecordingStruct(OracleFixtures.response, threads,
+                new RecordingStruct(OracleFixtures.message, threads, "code" + i, "message", null));
+        }
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            List<Complex> complexList = instantiatorWrapper.getOutputList(Complex.class,
+                new ARRAY(OracleFixtures.arrayOfComplex, OracleFixtures.connection, complexes), 100, pool);
+            List<Response> responseList = instantiatorWrapper.getOutputList(Response.class,
+                new ARRAY(OracleFixtures.arrayOfResponse, OracleFixtures.connection, responses), 100, pool);
+            Assert.assertEquals(OracleFixtures.complexObject(299), complexList.get(299));
+            Assert.assertEquals(new Response(new Message("code299", "message", null)), responseList.get(299));
+        } finally {
+            pool.shutdown();
+        }
+        Assert.assertEquals(Collections.singleton(Thread.currentThread()), threads);
+    }
+
+    @Test
+    public void nestedObjectIsDecoded() throws Exception {
+        InstantiatorWrapper instantiatorWrapper = OracleFixtures.instantiatorWrapper();
+        instantiatorWrapper.registerReflectiveConversionOutput(Response.class);
+        Assert.assertEquals(OracleFixtures.responseObject(),
+            instantiatorWrapper.getOutputObject(Response.class, OracleFixtures.responseStruct()));
+    }
+
+    /**
+     * Struct recording threads reading its attributes.
+     */
+    private static class RecordingStruct extends STRUCT {
+        private final Set<Thread> threads;
+
+        RecordingStruct(StructDescriptor descriptor, Set<Thread> threads, Object... attributes) throws SQLException {
+            super(descriptor, OracleFixtures.connection, attributes);
+            this.threads = threads;
+        }
+
+        @Override
+        public Datum[] getOracleAttributes() throws SQLException {
+            threads.add(Thread.currentThread());
+            return super.getOracleAttributes();
+        }
+
+        @Override
+        @SuppressWarnings("rawtypes")
+        public Object[] getAttributes(Map map) throws SQLException {
+            threads.add(Thread.currentThread());
+            return super.getAttributes(map);
+        }
+    }
+}
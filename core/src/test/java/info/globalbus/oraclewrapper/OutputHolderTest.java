@@ -0,0 +1,60 @@
+package info.globalbus.oraclewrapper;
+
+import info.globalbus.oraclewrapper.model.Complex;
+import info.globalbus.oraclewrapper.model.Response;
+import info.globalbus.oraclewrapper.model.ResponseWithStatus;
+import info.globalbus.oraclewrapper.model.StatusWithItems;
+import java.math.BigDecimal;
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.jdbc.core.SqlOutParameter;
+import org.springframework.jdbc.core.SqlParameter;
+
+public class OutputHolderTest {
+    @Test
+    public void allOutputsAreMappedIntoHolder() throws Exception {
+        InstantiatorWrapper instantiatorWrapper = OracleFixtures.instantiatorWrapper();
+        instantiatorWrapper.registerReflectiveConversionOutput(Response.class);
+        instantiatorWrapper.registerReflectiveConversionOutput(Complex.class);
+        List<SqlParameter> outputs = Arrays.asList(new SqlOutParameter("status", Types.NUMERIC),
+            SqlStructParameter.createOut("response", Response.class),
+            SqlStructParameter.createOutArray("items", Complex.class, OracleFixtures.ARRAY_OF_COMPLEX));
+        Map<String, Object> results = new HashMap<>();
+        results.put("status", BigDecimal.ONE);
+        results.put("response", OracleFixtures.responseStruct());
+        results.put("items", OracleFixtures.complexArray(3));
+
+        ResponseWithStatus holder = instantiatorWrapper.getOutputHolder(ResponseWithStatus.class, outputs, results);
+        Assert.assertEquals(BigDecimal.ONE, holder.getStatus());
+        Assert.assertEquals(OracleFixtures.responseObject(), holder.getResponse());
+        Assert.assertEquals(3, holder.getItems().size());
+        Assert.assertEquals(OracleFixtures.complexObject(2), holder.getItems().get(2));
+    }
+
+    @Test
+    public void holderIsMappedForEveryOrderOfOutputs() throws Exception {
+        InstantiatorWrapper instantiatorWrapper = OracleFixtures.instantiatorWrapper();
+        instantiatorWrapper.registerReflectiveConversionOutput(Complex.class);
+        SqlParameter status = new SqlOutParameter("status", Types.NUMERIC);
+        SqlParameter items = SqlStructParameter.createOutArray("items", Complex.class,
+            OracleFixtures.ARRAY_OF_COMPLEX);
+        Map<String, Object> results = new HashMap<>();
+        results.put("status", BigDecimal.ONE);
+        results.put("items", OracleFixtures.complexArray(2));
+
+        StatusWithItems first = instantiatorWrapper.getOutputHolder(StatusWithItems.class,
+            Arrays.asList(status, items), results);
+        StatusWithItems second = instantiatorWrapper.getOutputHolder(StatusWithItems.class,
+            Arrays.asList(items, status), results);
+        Assert.assertEquals(BigDecimal.ONE, second.getStatus());
+        Assert.assertEquals(Arrays.asList(OracleFixtures.complexObject(0), OracleFixtures.complexObject(1)),
+            second.getItems());
+        Assert.assertEquals(first, second);
+        Assert.assertEquals(2, instantiatorWrapper.getInstantiatorCache().getStats().get("holders").getSize());
+    }
+}
@@ -0,0 +1,55 @@
+package info.globalbus.oraclewrapper;
+
+import info.globalbus.oraclewrapper.model.Complex;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+import oracle.sql.ARRAY;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class OutputStreamTest {
+    @Test
+    public void elementsAreDecodedInOrderAcrossChunks() throws Exception {
+        InstantiatorWrapper instantiatorWrapper = OracleFixtures.instantiatorWrapper();
+        instantiatorWrapper.registerReflectiveConversionOutput(Complex.class);
+        List<Complex> list = instantiatorWrapper.getOutputStream(Complex.class, OracleFixtures.complexArray(10), 3)
+            .collect(Collectors.toList());
+        Assert.assertEquals(IntStream.range(0, 10).mapToObj(OracleFixtures::complexObject)
+            .collect(Collectors.toList()), list);
+    }
+
+    @Test
+    public void nullElementsAreSkipped() throws Exception {
+        InstantiatorWrapper instantiatorWrapper = OracleFixtures.instantiatorWrapper();
+        instantiatorWrapper.registerReflectiveConversionOutput(Complex.class);
+        ARRAY array = new ARRAY(OracleFixtures.arrayOfComplex, OracleFixtures.connection,
+            new Object[] {null, OracleFixtures.complexStruct(1), null, OracleFixtures.complexStruct(2), null});
+        Assert.assertEquals(Arrays.asList(OracleFixtures.complexObject(1), OracleFixtures.complexObject(2)),
+            instantiatorWrapper.getOutputStream(Complex.class, array, 2).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void nullOutputIsEmptyStream() {
+        Assert.assertEquals(0, OracleFixtures.instantiatorWrapper().getOutputStream(Complex.class, null, 2).count());
+    }
+
+    @Test
+    public void elementsAreDecodedOnDemand() throws Exception {
+        List<Object> decoded = new ArrayList<>();
+        OracleArraySpliterator<Object> spliterator = new OracleArraySpliterator<>(OracleFixtures.complexArray(7), 3,
+            v -> {
+                decoded.add(v);
+                return v;
+            });
+        Assert.assertEquals(7, spliterator.estimateSize());
+        Assert.assertTrue(spliterator.tryAdvance(v -> { }));
+        Assert.assertEquals(1, decoded.size());
+        Assert.assertEquals(6, StreamSupport.stream(spliterator, false).count());
+        Assert.assertEquals(7, decoded.size());
+        Assert.assertFalse(spliterator.tryAdvance(v -> { }));
+    }
+}
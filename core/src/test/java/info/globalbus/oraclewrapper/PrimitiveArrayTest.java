@@ -0,0 +1,35 @@
+package info.globalbus.oraclewrapper;
+
+import java.sql.Types;
+import oracle.sql.ARRAY;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PrimitiveArrayTest {
+    @Test
+    public void doubleArrayRoundTrip() throws Exception {
+        InstantiatorWrapper instantiatorWrapper = OracleFixtures.instantiatorWrapper();
+        ARRAY array = encode(instantiatorWrapper, new double[] {1.5, 2.5, -3});
+        Assert.assertArrayEquals(new double[] {1.5, 2.5, -3},
+            instantiatorWrapper.getOutputObject(double[].class, array), 0);
+    }
+
+    @Test
+    public void longAndIntArrays() throws Exception {
+        InstantiatorWrapper instantiatorWrapper = OracleFixtures.instantiatorWrapper();
+        ARRAY longs = encode(instantiatorWrapper, new long[] {Long.MAX_VALUE, 0, -1});
+        Assert.assertArrayEquals(new long[] {Long.MAX_VALUE, 0, -1}, instantiatorWrapper.getLongArray(longs));
+        ARRAY ints = encode(instantiatorWrapper, new int[] {7, 8});
+        Assert.assertArrayEquals(new int[] {7, 8}, instantiatorWrapper.getIntArray(ints));
+    }
+
+    @Test
+    public void nullCollection() {
+        Assert.assertNull(OracleFixtures.instantiatorWrapper().getOutputObject(double[].class, null));
+    }
+
+    private static ARRAY encode(InstantiatorWrapper instantiatorWrapper, Object array) throws Exception {
+        PrimitiveArrayValue value = (PrimitiveArrayValue) instantiatorWrapper.valueToDatabase(array);
+        return (ARRAY) value.createTypeValue(OracleFixtures.connection, Types.ARRAY, OracleFixtures.NUMBER_TABLE);
+    }
+}
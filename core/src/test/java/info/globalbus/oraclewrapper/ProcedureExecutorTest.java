@@ -0,0 +1,104 @@
+package info.globalbus.oraclewrapper;
+
+import java.sql.Connection;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+public class ProcedureExecutorTest {
+    @Test
+    public void executorIsSizedAsConnectionPool() {
+        PooledDataSource dataSource = new PooledDataSource(3);
+        ProcedureExecutor executor = ProcedureExecutor.forDataSource(dataSource);
+        try {
+            Assert.assertEquals(3, executor.getStats().getPoolSize());
+            Assert.assertSame(executor, ProcedureExecutor.forDataSource(dataSource, 10));
+        } finally {
+            executor.shutdown();
+        }
+        ProcedureExecutor recreated = ProcedureExecutor.forDataSource(dataSource);
+        try {
+            Assert.assertNotSame(executor, recreated);
+        } finally {
+            recreated.shutdown();
+        }
+    }
+
+    @Test
+    public void processorCountIsUsedForUnknownPool() {
+        ProcedureExecutor executor = ProcedureExecutor.forDataSource(new UnknownDataSource());
+        try {
+            Assert.assertEquals(Runtime.getRuntime().availableProcessors(), executor.getStats().getPoolSize());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void callsOverQueueCapacityAreRejected() throws Exception {
+        ProcedureExecutor executor = new ProcedureExecutor(1, 1);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch finished = new CountDownLatch(2);
+        try {
+            executor.execute(() -> {
+                started.countDown();
+                await(release);
+                finished.countDown();
+            });
+            Assert.assertTrue(started.await(10, TimeUnit.SECONDS));
+            executor.execute(finished::countDown);
+            try {
+                executor.execute(finished::countDown);
+                Assert.fail("Call over queue capacity should be rejected");
+            } catch (RejectedExecutionException ex) {
+                ProcedureExecutor.Stats stats = executor.getStats();
+                Assert.assertEquals(1, stats.getRejectedCount());
+                Assert.assertEquals(1, stats.getActiveCount());
+                Assert.assertEquals(1, stats.getQueueDepth());
+                Assert.assertEquals(0, stats.getQueueRemainingCapacity());
+            }
+            release.countDown();
+            Assert.assertTrue(finished.await(10, TimeUnit.SECONDS));
+            Assert.assertTrue(executor.getStats().getMaxWaitNanos() >= executor.getStats().getAverageWaitNanos());
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public static class PooledDataSource extends UnknownDataSource {
+        private final int maximumPoolSize;
+
+        PooledDataSource(int maximumPoolSize) {
+            this.maximumPoolSize = maximumPoolSize;
+        }
+
+        public int getMaximumPoolSize() {
+            return maximumPoolSize;
+        }
+    }
+
+    public static class UnknownDataSource extends AbstractDataSource {
+        @Override
+        public Connection getConnection() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package info.globalbus.oraclewrapper;
+
+import info.globalbus.oraclewrapper.model.Complex;
+import info.globalbus.oraclewrapper.model.ComplexList;
+import info.globalbus.oraclewrapper.model.Message;
+import info.globalbus.oraclewrapper.model.Response;
+import oracle.sql.STRUCT;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ProjectedDecodeTest {
+    @Test
+    public void voidAttributeIsSkipped() throws Exception {
+        InstantiatorWrapper instantiatorWrapper = OracleFixtures.instantiatorWrapper();
+        instantiatorWrapper.registerReflectiveConversionOutput(Message.class);
+        instantiatorWrapper.setProjectedDecode(true, false);
+        STRUCT struct = new STRUCT(OracleFixtures.message, OracleFixtures.connection,
+            new Object[] {"T", "B", OracleFixtures.complexStruct(1)});
+        Assert.assertEquals(new Message("T", "B", null), instantiatorWrapper.getOutputObject(Message.class, struct));
+        Assert.assertArrayEquals(new boolean[] {false, false, true},
+            instantiatorWrapper.getInstantiatorCache().get(Message.class).getSkipped());
+    }
+
+    @Test
+    public void projectedDecodeEqualsFullDecode() throws Exception {
+        InstantiatorWrapper instantiatorWrapper = OracleFixtures.instantiatorWrapper();
+        instantiatorWrapper.registerReflectiveConversionOutput(Response.class);
+        instantiatorWrapper.registerReflectiveConversionOutput(Complex.class);
+        instantiatorWrapper.setProjectedDecode(true, false);
+        Assert.assertEquals(OracleFixtures.responseObject(),
+            instantiatorWrapper.getOutputObject(Response.class, OracleFixtures.responseStruct()));
+        Assert.assertEquals(OracleFixtures.complexListObject(5).getItems(),
+            instantiatorWrapper.getOutputList(Complex.class, OracleFixtures.complexArray(5)));
+        Assert.assertNull(instantiatorWrapper.getInstantiatorCache().get(Complex.class).getSkipped());
+    }
+
+    @Test
+    public void nestedCollectionIsDecodedOnFirstAccess() throws Exception {
+        InstantiatorWrapper instantiatorWrapper = OracleFixtures.instantiatorWrapper();
+        instantiatorWrapper.registerReflectiveConversionOutput(ComplexList.class);
+        instantiatorWrapper.setProjectedDecode(true, true);
+        STRUCT struct = new STRUCT(OracleFixtures.complexList, OracleFixtures.connection,
+            new Object[] {OracleFixtures.complexArray(3)});
+        ComplexList decoded = instantiatorWrapper.getOutputObject(ComplexList.class, struct);
+        Assert.assertTrue(decoded.getItems() instanceof LazyDecodedList);
+        Assert.assertFalse(((LazyDecodedList<?>) decoded.getItems()).isDecoded());
+        Assert.assertEquals(OracleFixtures.complexListObject(3), decoded);
+        Assert.assertTrue(((LazyDecodedList<?>) decoded.getItems()).isDecoded());
+        decoded.getItems().add(OracleFixtures.complexObject(3));
+        decoded.getItems().remove(0);
+        Assert.assertEquals(OracleFixtures.complexObject(3), decoded.getItems().get(2));
+    }
+}
@@ -0,0 +1,41 @@
+package info.globalbus.oraclewrapper;
+
+import java.util.Collections;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SimpleProcedureMetricsTest {
+    private static final String PROCEDURE = "test";
+
+    @Test
+    public void callsAndErrorsAreCounted() {
+        SimpleProcedureMetrics metrics = new SimpleProcedureMetrics();
+        new CallRecorder(metrics, PROCEDURE).success(Collections.nCopies(3, "x"));
+        CallRecorder failed = new CallRecorder(metrics, PROCEDURE);
+        failed.next(ProcedureMetrics.Phase.EXECUTE);
+        failed.failure(new IllegalStateException());
+        SimpleProcedureMetrics.ProcedureStats stats = metrics.getStats().get(PROCEDURE);
+        Assert.assertEquals(2, stats.getCalls());
+        Assert.assertEquals(1, stats.getErrors());
+        Assert.assertEquals(0.5, stats.getErrorRate(), 0);
+        Assert.assertEquals(3, stats.getElements());
+        Assert.assertEquals(2, stats.getPhases().get(ProcedureMetrics.Phase.ENCODE).getCount());
+        Assert.assertEquals(1, stats.getPhases().get(ProcedureMetrics.Phase.EXECUTE).getCount());
+    }
+
+    @Test
+    public void percentilesAreBucketUpperBounds() {
+        SimpleProcedureMetrics metrics = new SimpleProcedureMetrics();
+        for (int i = 0; i < 99; i++) {
+            metrics.recordPhase(PROCEDURE, ProcedureMetrics.Phase.EXECUTE, 1000);
+        }
+        metrics.recordPhase(PROCEDURE, ProcedureMetrics.Phase.EXECUTE, 1_000_000);
+        SimpleProcedureMetrics.LatencyStats latency = metrics.getStats().get(PROCEDURE).getPhases()
+            .get(ProcedureMetrics.Phase.EXECUTE);
+        Assert.assertEquals(100, latency.getCount());
+        Assert.assertEquals(1023, latency.getP50Nanos());
+        Assert.assertEquals(1023, latency.getP99Nanos());
+        Assert.assertEquals(1_000_000, latency.getMaxNanos());
+        Assert.assertEquals((99 * 1000 + 1_000_000) / 100, latency.getMeanNanos());
+    }
+}
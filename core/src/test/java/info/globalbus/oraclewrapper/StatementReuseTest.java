@@ -0,0 +1,99 @@
+package info.globalbus.oraclewrapper;
+
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.util.HashSet;
+import java.util.Set;
+import oracle.jdbc.OracleCallableStatement;
+import oracle.jdbc.OracleConnection;
+import oracle.jdbc.OracleStatement;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class StatementReuseTest {
+    private static final String PROCEDURE = "test";
+    private static final String CALL = "{call test(?)}";
+
+    @Test
+    public void implicitCacheIsEnabledAndPreparesAreCounted() throws Exception {
+        SimpleProcedureMetrics metrics = new SimpleProcedureMetrics();
+        StatementReuse statementReuse = new StatementReuse(20, metrics, PROCEDURE);
+        CachingConnection cachingConnection = new CachingConnection();
+        Connection con = cachingConnection.proxy();
+        for (int i = 0; i < 3; i++) {
+            statementReuse.prepare(con, CALL).close();
+        }
+        Assert.assertTrue(cachingConnection.implicitCaching);
+        Assert.assertEquals(20, cachingConnection.cacheSize);
+        SimpleProcedureMetrics.ProcedureStats stats = metrics.getStats().get(PROCEDURE);
+        Assert.assertEquals(3, stats.getPrepares());
+        Assert.assertEquals(2, stats.getCachedPrepares());
+        Assert.assertEquals(1, stats.getParses());
+    }
+
+    @Test
+    public void poolConfigurationIsKept() throws Exception {
+        StatementReuse statementReuse = new StatementReuse(StatementReuse.POOL_DEFAULT, ProcedureMetrics.NONE,
+            PROCEDURE);
+        CachingConnection cachingConnection = new CachingConnection();
+        statementReuse.prepare(cachingConnection.proxy(), CALL).close();
+        Assert.assertFalse(cachingConnection.implicitCaching);
+        Assert.assertEquals(0, cachingConnection.cacheSize);
+    }
+
+    /**
+     * Connection with implicit statement cache keyed by SQL, statements are cached when closed.
+     */
+    private static class CachingConnection {
+        private final Set<String> cached = new HashSet<>();
+        private boolean implicitCaching;
+        private int cacheSize;
+
+        Connection proxy() {
+            return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] {OracleConnection.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "isWrapperFor":
+                            return true;
+                        case "unwrap":
+                            return proxy;
+                        case "getStatementCacheSize":
+                            return cacheSize;
+                        case "setStatementCacheSize":
+                            cacheSize = (Integer) args[0];
+                            return null;
+                        case "getImplicitCachingEnabled":
+                            return implicitCaching;
+                        case "setImplicitCachingEnabled":
+                            implicitCaching = (Boolean) args[0];
+                            return null;
+                        case "prepareCall":
+                            return statement((String) args[0]);
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+        }
+
+        private CallableStatement statement(String sql) {
+            int state = implicitCaching && cached.contains(sql) ? OracleStatement.IMPLICIT : OracleStatement.NEW;
+            return (CallableStatement) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] {OracleCallableStatement.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "isWrapperFor":
+                            return true;
+                        case "unwrap":
+                            return proxy;
+                        case "creationState":
+                            return state;
+                        case "close":
+                            cached.add(sql);
+                            return null;
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package info.globalbus.oraclewrapper;
+
+import info.globalbus.oraclewrapper.model.Complex;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import oracle.sql.ARRAY;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class StructArrayValueTest {
+    @Test
+    public void listIsEncodedAsArrayOfStructs() throws Exception {
+        InstantiatorWrapper instantiatorWrapper = OracleFixtures.instantiatorWrapper();
+        instantiatorWrapper.registerReflectiveConversionOutput(Complex.class);
+        ReflectionSqlTypeValue<Complex> type = new ReflectionSqlTypeValue<>(Complex.class, OracleFixtures.connection,
+            OracleFixtures.COMPLEX, instantiatorWrapper);
+        List<Complex> input = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            input.add(OracleFixtures.complexObject(i));
+        }
+        ARRAY array = (ARRAY) ((StructArrayValue) type.getArrayValue(input)).createTypeValue(
+            OracleFixtures.connection, Types.ARRAY, OracleFixtures.ARRAY_OF_COMPLEX);
+        Assert.assertEquals(input, instantiatorWrapper.getOutputList(Complex.class, array));
+    }
+}
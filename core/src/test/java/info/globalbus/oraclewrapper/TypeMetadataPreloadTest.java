@@ -0,0 +1,68 @@
+package info.globalbus.oraclewrapper;
+
+import info.globalbus.oraclewrapper.model.Message;
+import info.globalbus.oraclewrapper.model.Response;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TypeMetadataPreloadTest {
+    @Test
+    public void nestedTypesAreLoadedPerLevel() {
+        InstantiatorWrapper instantiatorWrapper = OracleFixtures.instantiatorWrapper();
+        Map<String, TypeMetadata> dictionary = OracleFixtures.dictionary();
+        List<Collection<String>> calls = new ArrayList<>();
+        instantiatorWrapper.preload(OracleFixtures.jdbcTemplate(), names -> {
+            calls.add(new ArrayList<>(names));
+            Map<String, TypeMetadata> result = new HashMap<>();
+            names.stream().filter(dictionary::containsKey).forEach(v -> result.put(v, dictionary.get(v)));
+            return result;
+        }, Collections.singletonList(OracleFixtures.RESPONSE));
+        Assert.assertEquals(Arrays.asList(
+            Collections.singletonList(OracleFixtures.RESPONSE),
+            Collections.singletonList(OracleFixtures.MESSAGE),
+            Collections.singletonList(OracleFixtures.COMPLEX)), calls);
+        InstantiatorCache cache = instantiatorWrapper.getInstantiatorCache();
+        Assert.assertTrue(cache.isPreloaded(OracleFixtures.RESPONSE));
+        Assert.assertEquals(Arrays.asList("code", "message", "unrelated"),
+            cache.getAttributeNames(OracleFixtures.MESSAGE));
+    }
+
+    @Test
+    public void preloadedTypeIsMappedWithoutConnection() throws Exception {
+        InstantiatorWrapper instantiatorWrapper = OracleFixtures.instantiatorWrapper();
+        instantiatorWrapper.preload(OracleFixtures.jdbcTemplate(), names -> OracleFixtures.dictionary(),
+            Collections.singletonList(OracleFixtures.RESPONSE));
+        ReflectionSqlTypeValue<Response> typeValue = new ReflectionSqlTypeValue<>(Response.class, null,
+            OracleFixtures.RESPONSE, instantiatorWrapper);
+        MappedSqlTypeValue value = (MappedSqlTypeValue) typeValue.getSqlTypeValue(OracleFixtures.responseObject());
+        Assert.assertNotNull(value.createTypeValue(OracleFixtures.connection, Types.STRUCT,
+            OracleFixtures.RESPONSE));
+    }
+
+    @Test
+    public void nestedTypeMissingFromCacheIsMappedOnFirstUse() throws Exception {
+        InstantiatorWrapper instantiatorWrapper = new InstantiatorWrapper();
+        InstantiatorCache cache = instantiatorWrapper.getInstantiatorCache();
+        cache.registerStructDescriptor(OracleFixtures.RESPONSE, OracleFixtures.response);
+        cache.setTypeMetadata(OracleFixtures.dictionary().get(OracleFixtures.RESPONSE));
+        Assert.assertTrue(cache.isPreloaded(OracleFixtures.RESPONSE));
+        Assert.assertNull(cache.getCachedStruct(OracleFixtures.MESSAGE));
+        ReflectionSqlTypeValue<Response> typeValue = new ReflectionSqlTypeValue<>(Response.class, null,
+            OracleFixtures.RESPONSE, instantiatorWrapper);
+        cache.registerStructDescriptor(OracleFixtures.MESSAGE, OracleFixtures.message);
+        cache.registerStructDescriptor(OracleFixtures.COMPLEX, OracleFixtures.complex);
+        MappedSqlTypeValue value = (MappedSqlTypeValue) typeValue.getSqlTypeValue(OracleFixtures.responseObject());
+        Assert.assertNotNull(value.createTypeValue(OracleFixtures.connection, Types.STRUCT,
+            OracleFixtures.RESPONSE));
+        Assert.assertEquals(1, typeValue.getFields(OracleFixtures.connection).length);
+        Assert.assertNotNull(cache.getInputMapping(Message.class));
+    }
+}
@@ -0,0 +1,15 @@
+package info.globalbus.oraclewrapper.model;
+
+import info.globalbus.oraclewrapper.OracleStruct;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@OracleStruct
+public class Complex {
+    Double rPart;
+    Double iPart;
+}
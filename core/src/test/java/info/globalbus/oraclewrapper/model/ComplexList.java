@@ -0,0 +1,17 @@
+package info.globalbus.oraclewrapper.model;
+
+import info.globalbus.oraclewrapper.OracleArray;
+import info.globalbus.oraclewrapper.OracleStruct;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@OracleStruct("ComplexList")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ComplexList {
+    @OracleArray("ARRAY_OF_COMPLEX")
+    List<Complex> items;
+}
@@ -0,0 +1,14 @@
+package info.globalbus.oraclewrapper.model;
+
+import info.globalbus.oraclewrapper.OracleStruct;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@OracleStruct("Message")
+@Data
+@AllArgsConstructor
+public class Message {
+    String code;
+    String message;
+    Void unrelated;
+}
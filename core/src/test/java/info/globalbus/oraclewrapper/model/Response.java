@@ -0,0 +1,12 @@
+package info.globalbus.oraclewrapper.model;
+
+import info.globalbus.oraclewrapper.OracleStruct;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@OracleStruct("Response")
+@Data
+@AllArgsConstructor
+public class Response {
+    Message message;
+}
@@ -0,0 +1,14 @@
+package info.globalbus.oraclewrapper.model;
+
+import java.math.BigDecimal;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class ResponseWithStatus {
+    BigDecimal status;
+    Response response;
+    List<Complex> items;
+}
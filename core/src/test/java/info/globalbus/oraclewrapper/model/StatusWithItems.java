@@ -0,0 +1,13 @@
+package info.globalbus.oraclewrapper.model;
+
+import java.math.BigDecimal;
+import java.util.List;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+public class StatusWithItems {
+    BigDecimal status;
+    List<Complex> items;
+}
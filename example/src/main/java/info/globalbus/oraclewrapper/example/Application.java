@@ -3,6 +3,7 @@ package info.globalbus.oraclewrapper.example;
 import javax.sql.DataSource;
 
 import info.globalbus.oraclewrapper.InstantiatorWrapper;
+import info.globalbus.oraclewrapper.SimpleProcedureMetrics;
 import org.dalesbred.dialect.OracleDialect;
 import org.dalesbred.internal.instantiation.InstantiatorProvider;
 import org.springframework.boot.SpringApplication;
@@ -25,6 +26,11 @@ public class Application {
         return new InstantiatorWrapper();
     }
 
+    @Bean
+    SimpleProcedureMetrics procedureMetrics() {
+        return new SimpleProcedureMetrics();
+    }
+
     @Bean
     JdbcTemplate jdbcTemplate(DataSource ds) {
         return new JdbcTemplate(ds);
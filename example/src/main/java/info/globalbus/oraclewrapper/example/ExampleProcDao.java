@@ -1,6 +1,7 @@
 package info.globalbus.oraclewrapper.example;
 
 import info.globalbus.oraclewrapper.InstantiatorWrapper;
+import info.globalbus.oraclewrapper.ProcedureMetrics;
 import info.globalbus.oraclewrapper.ProcedureWrapperBuilder;
 import info.globalbus.oraclewrapper.SqlStructParameter;
 import java.util.List;
@@ -22,6 +23,7 @@ public class ExampleProcDao {
     private static final String PROCEDURE_NAME = "example_proc";
     private final JdbcTemplate template;
     private final InstantiatorWrapper instantion;
+    private final ProcedureMetrics procedureMetrics;
     private ProcedureWrapperBuilder<Complex>.LazyInitializer wrapper;
 
     public List<Complex> getList(Complex input) {
@@ -38,6 +40,7 @@ public class ExampleProcDao {
             .parameter(SqlStructParameter.createOutArray(OUTPUT_PARAM, Complex.class,
                 "array_of_complex"))
             .parameter(SqlStructParameter.createIn(INPUT_PARAM, Complex.class))
+            .metrics(procedureMetrics)
             .build();
     }
 }
@@ -0,0 +1,46 @@
+package info.globalbus.oraclewrapper.example;
+
+import info.globalbus.oraclewrapper.SimpleProcedureMetrics;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes procedure metrics on actuator /metrics endpoint. Latencies are in milliseconds.
+ */
+@Component
+@RequiredArgsConstructor
+public class ProcedurePublicMetrics implements PublicMetrics {
+    private static final double NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+    private final SimpleProcedureMetrics procedureMetrics;
+
+    @Override
+    public Collection<Metric<?>> metrics() {
+        List<Metric<?>> metrics = new ArrayList<>();
+        procedureMetrics.getStats().forEach((name, stats) -> {
+            String prefix = "procedure." + name + ".";
+            metrics.add(new Metric<>(prefix + "calls", stats.getCalls()));
+            metrics.add(new Metric<>(prefix + "errors", stats.getErrors()));
+            metrics.add(new Metric<>(prefix + "errorRate", stats.getErrorRate()));
+            metrics.add(new Metric<>(prefix + "elements", stats.getElements()));
+            metrics.add(new Metric<>(prefix + "allocatedBytes", stats.getAllocatedBytes()));
+            metrics.add(new Metric<>(prefix + "prepares", stats.getPrepares()));
+            metrics.add(new Metric<>(prefix + "parses", stats.getParses()));
+            stats.getPhases().forEach((phase, latency) -> {
+                String phasePrefix = prefix + phase.name().toLowerCase(Locale.ROOT) + ".";
+                metrics.add(new Metric<>(phasePrefix + "count", latency.getCount()));
+                metrics.add(new Metric<>(phasePrefix + "mean", latency.getMeanNanos() / NANOS_PER_MILLI));
+                metrics.add(new Metric<>(phasePrefix + "p50", latency.getP50Nanos() / NANOS_PER_MILLI));
+                metrics.add(new Metric<>(phasePrefix + "p99", latency.getP99Nanos() / NANOS_PER_MILLI));
+                metrics.add(new Metric<>(phasePrefix + "max", latency.getMaxNanos() / NANOS_PER_MILLI));
+            });
+        });
+        return metrics;
+    }
+}
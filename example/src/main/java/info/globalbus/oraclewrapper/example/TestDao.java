@@ -1,9 +1,11 @@
 package info.globalbus.oraclewrapper.example;
 
 import info.globalbus.oraclewrapper.InstantiatorWrapper;
+import info.globalbus.oraclewrapper.ProcedureMetrics;
 import info.globalbus.oraclewrapper.ProcedureWrapperBuilder;
 import info.globalbus.oraclewrapper.SqlStructParameter;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import javax.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import org.springframework.jdbc.core.JdbcTemplate;
@@ -22,12 +24,17 @@ public class TestDao {
     private static final String PROCEDURE_NAME = "test";
     private final JdbcTemplate template;
     private final InstantiatorWrapper instantion;
+    private final ProcedureMetrics procedureMetrics;
     private ProcedureWrapperBuilder<Response>.LazyInitializer wrapper;
 
     public Response get(Complex input) {
         return wrapper.get().mapObject(input);
     }
 
+    public CompletableFuture<Response> getAsync(Complex input) {
+        return wrapper.getAsync().mapObjectAsync(input);
+    }
+
     @PostConstruct
     void init() {
         ProcedureWrapperBuilder<Response> wrapperBuilder = new ProcedureWrapperBuilder<>();
@@ -37,6 +44,8 @@ public class TestDao {
             .clazz(Response.class)
             .parameter(SqlStructParameter.createIn(INPUT_PARAM, Complex.class))
             .parameter(SqlStructParameter.createOut(OUTPUT_PARAM, Response.class))
+            .async()
+            .metrics(procedureMetrics)
             .build();
     }
 }
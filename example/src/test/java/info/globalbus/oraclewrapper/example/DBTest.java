@@ -1,6 +1,7 @@
 package info.globalbus.oraclewrapper.example;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
@@ -50,4 +51,16 @@ public class DBTest {
         pool.awaitTermination(1, TimeUnit.MINUTES);
         pool.isTerminated();
     }
+
+    @Test
+    public void asyncTest() throws Exception {
+        Complex obj = new Complex();
+        obj.setRPart(5.0);
+        obj.setIPart(6.0);
+        CompletableFuture<Response> first = testDao.getAsync(obj);
+        CompletableFuture<Response> second = testDao.getAsync(obj);
+        CompletableFuture.allOf(first, second).get(1, TimeUnit.MINUTES);
+        Assert.assertTrue(first.get().message != null);
+        Assert.assertTrue(second.get().message != null);
+    }
 }
\ No newline at end of file
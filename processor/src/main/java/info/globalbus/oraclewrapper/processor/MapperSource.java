@@ -0,0 +1,170 @@
+package info.globalbus.oraclewrapper.processor;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Source of generated StructMapper.
+ */
+class MapperSource {
+    private static final Map<String, String> BOXES = new HashMap<>();
+
+    static {
+        BOXES.put("boolean", "Boolean");
+        BOXES.put("byte", "Byte");
+        BOXES.put("short", "Short");
+        BOXES.put("char", "Character");
+        BOXES.put("int", "Integer");
+        BOXES.put("long", "Long");
+        BOXES.put("float", "Float");
+        BOXES.put("double", "Double");
+    }
+
+    private final String packageName;
+    private final String mapperName;
+    private final String className;
+    private final boolean noArgsConstructor;
+    private final List<PropertyModel> properties;
+
+    MapperSource(String packageName, String mapperName, String className, boolean noArgsConstructor,
+        List<PropertyModel> properties) {
+        this.packageName = packageName;
+        this.mapperName = mapperName;
+        this.className = className;
+        this.noArgsConstructor = noArgsConstructor;
+        this.properties = properties;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            out.append("package ").append(packageName).append(";\n\n");
+        }
+        boolean decodable = noArgsConstructor && properties.stream()
+            .allMatch(v -> v.setter != null || "java.lang.Void".equals(v.type));
+        boolean encodable = properties.stream().allMatch(v -> v.getter != null);
+        out.append("@SuppressWarnings({\"unchecked\", \"rawtypes\"})\n")
+            .append("public final class ").append(mapperName)
+            .append(" implements info.globalbus.oraclewrapper.StructMapper<").append(className).append("> {\n")
+            .append("    private static final java.util.List<info.globalbus.oraclewrapper.StructProperty> PROPERTIES")
+            .append(" = java.util.Collections.unmodifiableList(java.util.Arrays.asList(");
+        for (int i = 0; i < properties.size(); i++) {
+            PropertyModel property = properties.get(i);
+            out.append(i == 0 ? "\n" : ",\n").append("        new info.globalbus.oraclewrapper.StructProperty(")
+                .append(literal(property.name)).append(", ").append(property.type).append(".class, ")
+                .append(literal(property.arrayTypeName)).append(", ")
+                .append(property.elementType == null ? "null" : property.elementType + ".class").append(")");
+        }
+        out.append("));\n\n");
+
+        method(out, "public Class<" + className + "> getMappedClass()", "return " + className + ".class;");
+        method(out, "public java.util.List<info.globalbus.oraclewrapper.StructProperty> getProperties()",
+            "return PROPERTIES;");
+        method(out, "public boolean isDecodable()", "return " + decodable + ";");
+        method(out, "public boolean isEncodable()", "return " + encodable + ";");
+        method(out, "public " + className + " newInstance()", noArgsConstructor ? "return new " + className + "();"
+            : "throw new UnsupportedOperationException(\"No argument constructor\");");
+
+        out.append("    @Override\n    public Object get(").append(className).append(" object, int index) {\n")
+            .append("        switch (index) {\n");
+        for (int i = 0; i < properties.size(); i++) {
+            PropertyModel property = properties.get(i);
+            if (property.getter != null) {
+                out.append("            case ").append(i).append(":\n")
+                    .append("                return ").append(property.getter).append(";\n");
+            }
+        }
+        out.append("            default:\n")
+            .append("                throw new IndexOutOfBoundsException(\"Property \" + index);\n")
+            .append("        }\n    }\n\n");
+
+        out.append("    @Override\n    public void set(").append(className)
+            .append(" object, int index, Object value, info.globalbus.oraclewrapper.StructMapper.Context context)")
+            .append(" {\n        switch (index) {\n");
+        for (int i = 0; i < properties.size(); i++) {
+            PropertyModel property = properties.get(i);
+            if (property.setter == null || "java.lang.Void".equals(property.type)) {
+                continue;
+            }
+            out.append("            case ").append(i).append(":\n");
+            if (property.primitive) {
+                out.append("                if (value != null) {\n")
+                    .append("                    ").append(String.format(property.setter, conversion(property)))
+                    .append(";\n                }\n");
+            } else {
+                out.append("                ").append(String.format(property.setter, conversion(property)))
+                    .append(";\n");
+            }
+            out.append("                return;\n");
+        }
+        for (int i = 0; i < properties.size(); i++) {
+            PropertyModel property = properties.get(i);
+            if ("java.lang.Void".equals(property.type)) {
+                out.append("            case ").append(i).append(":\n");
+            }
+        }
+        if (properties.stream().anyMatch(v -> "java.lang.Void".equals(v.type))) {
+            out.append("                return;\n");
+        }
+        out.append("            default:\n")
+            .append("                throw new IndexOutOfBoundsException(\"Property \" + index);\n")
+            .append("        }\n    }\n}\n");
+        return out.toString();
+    }
+
+    private static void method(StringBuilder out, String signature, String body) {
+        out.append("    @Override\n    ").append(signature).append(" {\n        ").append(body).append("\n    }\n\n");
+    }
+
+    /**
+     * Numbers are returned by driver as BigDecimal, they are narrowed in place. Other values are converted by
+     * context.
+     */
+    private static String conversion(PropertyModel property) {
+        if (property.elementType != null) {
+            return "context.convertList(value, " + property.elementType + ".class)";
+        }
+        String box = property.primitive ? BOXES.get(property.type) : property.type;
+        String number = numberMethod(box);
+        String converted = "context.convert(value, " + box + ".class)";
+        if (number == null) {
+            return property.primitive ? converted : "(" + box + ") " + converted;
+        }
+        return "(value instanceof Number ? " + box + ".valueOf(((Number) value)." + number + "()) : " + converted
+            + ")";
+    }
+
+    private static String numberMethod(String box) {
+        switch (box) {
+            case "java.lang.Byte":
+            case "Byte":
+                return "byteValue";
+            case "java.lang.Short":
+            case "Short":
+                return "shortValue";
+            case "java.lang.Integer":
+            case "Integer":
+                return "intValue";
+            case "java.lang.Long":
+            case "Long":
+                return "longValue";
+            case "java.lang.Float":
+            case "Float":
+                return "floatValue";
+            case "java.lang.Double":
+            case "Double":
+                return "doubleValue";
+            default:
+                return null;
+        }
+    }
+
+    private static String literal(String value) {
+        if (value == null) {
+            return "null";
+        }
+        return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+}
@@ -0,0 +1,244 @@
+package info.globalbus.oraclewrapper.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+
+/**
+ * Generates StructMapper for every class annotated with OracleStruct. Mapper reads and writes properties by index,
+ * through getters and setters (declared or generated by Lombok) or directly through fields, so the wrapper maps
+ * these classes without reflection. Classes which cannot be fully handled get a mapper marked as not decodable or
+ * not encodable, and are mapped by reflection at runtime.
+ */
+public class OracleStructProcessor extends AbstractProcessor {
+    static final String ORACLE_STRUCT = "info.globalbus.oraclewrapper.OracleStruct";
+    static final String ORACLE_ARRAY = "info.globalbus.oraclewrapper.OracleArray";
+    static final String SUFFIX = "_OracleMapper";
+    private static final List<String> LOMBOK_CONSTRUCTORS = Arrays.asList("lombok.AllArgsConstructor",
+        "lombok.RequiredArgsConstructor", "lombok.Value", "lombok.Builder");
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return new HashSet<>(Arrays.asList(ORACLE_STRUCT, ORACLE_ARRAY));
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        TypeElement annotation = processingEnv.getElementUtils().getTypeElement(ORACLE_STRUCT);
+        if (annotation == null) {
+            return false;
+        }
+        for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+            if (element.getKind() == ElementKind.CLASS) {
+                TypeElement type = (TypeElement) element;
+                if (isSupported(type)) {
+                    write(type);
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean isSupported(TypeElement type) {
+        String reason = null;
+        if (type.getModifiers().contains(Modifier.ABSTRACT)) {
+            reason = "abstract class";
+        } else if (!type.getTypeParameters().isEmpty()) {
+            reason = "generic class";
+        } else if (type.getNestingKind() == NestingKind.MEMBER && !type.getModifiers().contains(Modifier.STATIC)) {
+            reason = "inner class";
+        } else if (!isAccessible(type)) {
+            reason = "private class";
+        }
+        if (reason != null) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE, "No mapper generated for " + reason
+                + ", reflection is used", type);
+        }
+        return reason == null;
+    }
+
+    private void write(TypeElement type) {
+        PackageElement packageElement = processingEnv.getElementUtils().getPackageOf(type);
+        String packageName = packageElement.isUnnamed() ? "" : packageElement.getQualifiedName().toString();
+        String binaryName = processingEnv.getElementUtils().getBinaryName(type).toString();
+        String mapperName = (packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1))
+            + SUFFIX;
+        List<PropertyModel> properties = new ArrayList<>();
+        collectProperties(type, type, properties);
+        MapperSource source = new MapperSource(packageName, mapperName, type.getQualifiedName().toString(),
+            hasNoArgsConstructor(type), properties);
+        try {
+            JavaFileObject file = processingEnv.getFiler().createSourceFile(
+                packageName.isEmpty() ? mapperName : packageName + "." + mapperName, type);
+            try (Writer writer = file.openWriter()) {
+                writer.write(source.toString());
+            }
+        } catch (IOException ex) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Cannot write mapper: " + ex, type);
+        }
+    }
+
+    /**
+     * Collects instance fields of class and its superclasses, superclass fields first.
+     */
+    private void collectProperties(TypeElement root, TypeElement type, List<PropertyModel> properties) {
+        TypeMirror superclass = type.getSuperclass();
+        if (superclass.getKind() == TypeKind.DECLARED) {
+            TypeElement superElement = (TypeElement) ((DeclaredType) superclass).asElement();
+            if (!Object.class.getName().equals(superElement.getQualifiedName().toString())) {
+                collectProperties(root, superElement, properties);
+            }
+        }
+        for (VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+            Set<Modifier> modifiers = field.getModifiers();
+            if (modifiers.contains(Modifier.STATIC) || modifiers.contains(Modifier.TRANSIENT)) {
+                continue;
+            }
+            properties.add(property(root, type, field));
+        }
+    }
+
+    private PropertyModel property(TypeElement root, TypeElement owner, VariableElement field) {
+        String name = field.getSimpleName().toString();
+        TypeMirror fieldType = field.asType();
+        String type = processingEnv.getTypeUtils().erasure(fieldType).toString();
+        String elementType = null;
+        if (fieldType.getKind() == TypeKind.DECLARED && List.class.getName().equals(type)) {
+            List<? extends TypeMirror> arguments = ((DeclaredType) fieldType).getTypeArguments();
+            if (arguments.size() == 1 && arguments.get(0).getKind() == TypeKind.DECLARED) {
+                elementType = processingEnv.getTypeUtils().erasure(arguments.get(0)).toString();
+            }
+        }
+        String capitalized = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+        boolean directAccess = !field.getModifiers().contains(Modifier.PRIVATE) && isSamePackage(root, owner);
+        boolean isFinal = field.getModifiers().contains(Modifier.FINAL);
+
+        String getter = null;
+        List<String> getterNames = fieldType.getKind() == TypeKind.BOOLEAN
+            ? Arrays.asList("is" + capitalized, "get" + capitalized) : Collections.singletonList("get" + capitalized);
+        for (String getterName : getterNames) {
+            if (hasMethod(root, getterName, 0)) {
+                getter = "object." + getterName + "()";
+                break;
+            }
+        }
+        if (getter == null && (hasAnnotation(field, "lombok.Getter") || hasAnnotation(owner, "lombok.Getter")
+            || hasAnnotation(owner, "lombok.Data") || hasAnnotation(owner, "lombok.Value"))) {
+            getter = "object." + getterNames.get(0) + "()";
+        }
+        if (getter == null && directAccess) {
+            getter = "object." + name;
+        }
+
+        String setter = null;
+        if (hasMethod(root, "set" + capitalized, 1)) {
+            setter = "object.set" + capitalized + "(%s)";
+        } else if (!isFinal && (hasAnnotation(field, "lombok.Setter") || hasAnnotation(owner, "lombok.Setter")
+            || hasAnnotation(owner, "lombok.Data"))) {
+            setter = "object.set" + capitalized + "(%s)";
+        } else if (!isFinal && directAccess) {
+            setter = "object." + name + " = %s";
+        }
+        return new PropertyModel(name, type, fieldType.getKind().isPrimitive(), arrayTypeName(field), elementType,
+            getter, setter);
+    }
+
+    private String arrayTypeName(VariableElement field) {
+        for (AnnotationMirror mirror : field.getAnnotationMirrors()) {
+            if (ORACLE_ARRAY.equals(mirror.getAnnotationType().toString())) {
+                for (ExecutableElement key : mirror.getElementValues().keySet()) {
+                    if ("value".contentEquals(key.getSimpleName())) {
+                        AnnotationValue value = mirror.getElementValues().get(key);
+                        return value.getValue().toString();
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Lombok constructors are not visible to other processors, so they are recognized by annotations. Classes with
+     * Lombok constructors have no argument constructor only when it is requested explicitly.
+     */
+    private boolean hasNoArgsConstructor(TypeElement type) {
+        if (hasAnnotation(type, "lombok.NoArgsConstructor")) {
+            return true;
+        }
+        boolean finalFields = ElementFilter.fieldsIn(type.getEnclosedElements()).stream()
+            .anyMatch(v -> v.getModifiers().contains(Modifier.FINAL) && !v.getModifiers().contains(Modifier.STATIC));
+        if (LOMBOK_CONSTRUCTORS.stream().anyMatch(v -> hasAnnotation(type, v))
+            || hasAnnotation(type, "lombok.Data") && finalFields) {
+            return false;
+        }
+        return ElementFilter.constructorsIn(type.getEnclosedElements()).stream()
+            .anyMatch(v -> v.getParameters().isEmpty() && !v.getModifiers().contains(Modifier.PRIVATE));
+    }
+
+    private boolean hasMethod(TypeElement type, String name, int parameterCount) {
+        for (TypeElement current = type; current != null; current = superclass(current)) {
+            boolean found = ElementFilter.methodsIn(current.getEnclosedElements()).stream()
+                .anyMatch(v -> v.getSimpleName().contentEquals(name) && v.getParameters().size() == parameterCount
+                    && !v.getModifiers().contains(Modifier.STATIC) && !v.getModifiers().contains(Modifier.PRIVATE)
+                    && (v.getModifiers().contains(Modifier.PUBLIC) || isSamePackage(type, v.getEnclosingElement())));
+            if (found) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private TypeElement superclass(TypeElement type) {
+        TypeMirror superclass = type.getSuperclass();
+        return superclass.getKind() == TypeKind.DECLARED ? (TypeElement) ((DeclaredType) superclass).asElement()
+            : null;
+    }
+
+    private boolean isSamePackage(Element first, Element second) {
+        return processingEnv.getElementUtils().getPackageOf(first)
+            .equals(processingEnv.getElementUtils().getPackageOf(second));
+    }
+
+    private static boolean isAccessible(TypeElement type) {
+        for (Element current = type; current instanceof TypeElement; current = current.getEnclosingElement()) {
+            if (current.getModifiers().contains(Modifier.PRIVATE)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean hasAnnotation(Element element, String annotation) {
+        return element.getAnnotationMirrors().stream()
+            .anyMatch(v -> annotation.equals(v.getAnnotationType().toString()));
+    }
+}
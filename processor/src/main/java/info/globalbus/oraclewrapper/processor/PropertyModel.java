@@ -0,0 +1,26 @@
+package info.globalbus.oraclewrapper.processor;
+
+/**
+ * Property found by processor. Getter is expression reading value of variable object, setter is format with
+ * placeholder for assigned value. Null getter or setter means property cannot be accessed from generated code.
+ */
+class PropertyModel {
+    final String name;
+    final String type;
+    final boolean primitive;
+    final String arrayTypeName;
+    final String elementType;
+    final String getter;
+    final String setter;
+
+    PropertyModel(String name, String type, boolean primitive, String arrayTypeName, String elementType,
+        String getter, String setter) {
+        this.name = name;
+        this.type = type;
+        this.primitive = primitive;
+        this.arrayTypeName = arrayTypeName;
+        this.elementType = elementType;
+        this.getter = getter;
+        this.setter = setter;
+    }
+}
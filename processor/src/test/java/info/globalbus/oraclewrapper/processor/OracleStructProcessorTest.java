@@ -0,0 +1,135 @@
+package info.globalbus.oraclewrapper.processor;
+
+import info.globalbus.oraclewrapper.StructMapper;
+import info.globalbus.oraclewrapper.StructProperty;
+import java.io.File;
+import java.math.BigDecimal;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class OracleStructProcessorTest {
+    private static final String SAMPLE = String.join("\n",
+        "package sample;",
+        "import info.globalbus.oraclewrapper.OracleArray;",
+        "import info.globalbus.oraclewrapper.OracleStruct;",
+        "import java.util.List;",
+        "@OracleStruct",
+        "public class Sample {",
+        "    private int id;",
+        "    private String name;",
+        "    @OracleArray(\"NAME_TABLE\")",
+        "    List<String> aliases;",
+        "    private Void ignored;",
+        "    public int getId() { return id; }",
+        "    public void setId(int id) { this.id = id; }",
+        "    public String getName() { return name; }",
+        "    public void setName(String name) { this.name = name; }",
+        "    public Void getIgnored() { return ignored; }",
+        "}");
+    private static final String READ_ONLY = String.join("\n",
+        "package sample;",
+        "import info.globalbus.oraclewrapper.OracleStruct;",
+        "@OracleStruct",
+        "public class ReadOnly {",
+        "    private final long id;",
+        "    public ReadOnly(long id) { this.id = id; }",
+        "    public long getId() { return id; }",
+        "}");
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void mapperReadsAndWritesProperties() throws Exception {
+        try (URLClassLoader loader = compile(Collections.singletonList(SAMPLE))) {
+            Class<?> sample = loader.loadClass("sample.Sample");
+            StructMapper<Object> mapper = (StructMapper<Object>) loader.loadClass("sample.Sample_OracleMapper")
+                .getDeclaredConstructor().newInstance();
+            Assert.assertEquals(sample, mapper.getMappedClass());
+            Assert.assertTrue(mapper.isDecodable());
+            Assert.assertTrue(mapper.isEncodable());
+            List<StructProperty> properties = mapper.getProperties();
+            Assert.assertEquals(Arrays.asList("id", "name", "aliases", "ignored"),
+                properties.stream().map(StructProperty::getName).collect(Collectors.toList()));
+            Assert.assertEquals(int.class, properties.get(0).getType());
+            Assert.assertEquals("NAME_TABLE", properties.get(2).getArrayTypeName());
+            Assert.assertEquals(String.class, properties.get(2).getElementType());
+
+            Object object = mapper.newInstance();
+            mapper.set(object, 0, new BigDecimal(12), null);
+            mapper.set(object, 0, null, null);
+            mapper.set(object, 1, "first", new EchoContext());
+            mapper.set(object, 2, "alias", new EchoContext());
+            mapper.set(object, 3, "skipped", null);
+            Assert.assertEquals(12, mapper.get(object, 0));
+            Assert.assertEquals("first", mapper.get(object, 1));
+            Assert.assertEquals(Collections.singletonList("alias"), mapper.get(object, 2));
+            Assert.assertNull(mapper.get(object, 3));
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void classWithoutSettersIsOnlyEncodable() throws Exception {
+        try (URLClassLoader loader = compile(Collections.singletonList(READ_ONLY))) {
+            StructMapper<Object> mapper = (StructMapper<Object>) loader.loadClass("sample.ReadOnly_OracleMapper")
+                .getDeclaredConstructor().newInstance();
+            Assert.assertFalse(mapper.isDecodable());
+            Assert.assertTrue(mapper.isEncodable());
+            Object object = loader.loadClass("sample.ReadOnly").getConstructor(long.class).newInstance(5L);
+            Assert.assertEquals(5L, mapper.get(object, 0));
+        }
+    }
+
+    private static URLClassLoader compile(List<String> sources) throws Exception {
+        Path root = Files.createTempDirectory("processor");
+        Path sourceDir = Files.createDirectories(root.resolve("src/sample"));
+        Path outputDir = Files.createDirectories(root.resolve("classes"));
+        File[] files = new File[sources.size()];
+        for (int i = 0; i < sources.size(); i++) {
+            String source = sources.get(i);
+            String name = source.substring(source.indexOf("class ") + 6, source.indexOf(" {"));
+            files[i] = Files.write(sourceDir.resolve(name + ".java"), source.getBytes(StandardCharsets.UTF_8))
+                .toFile();
+        }
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, null)) {
+            Iterable<? extends JavaFileObject> units = fileManager.getJavaFileObjects(files);
+            List<String> options = Arrays.asList("-d", outputDir.toString(),
+                "-classpath", System.getProperty("java.class.path"));
+            JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, null, options, null, units);
+            task.setProcessors(Collections.singletonList(new OracleStructProcessor()));
+            Assert.assertTrue(task.call());
+        }
+        return new URLClassLoader(new URL[] {outputDir.toUri().toURL()},
+            OracleStructProcessorTest.class.getClassLoader());
+    }
+
+    /**
+     * Context returning values unchanged, lists are created from single value.
+     */
+    private static class EchoContext implements StructMapper.Context {
+        @Override
+        @SuppressWarnings("unchecked")
+        public <V> V convert(Object value, Class<V> type) {
+            return (V) value;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <V> List<V> convertList(Object value, Class<V> elementType) {
+            return Collections.singletonList((V) value);
+        }
+    }
+}